@@ -1,20 +1,271 @@
 package com.github.forax.framework.injector;
 
 import java.io.IOException;
-import java.lang.reflect.Modifier;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Annotation;
 import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
-public class AnnotationScanner {
-  // TODO
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Scans the classes of a package and calls the actions registered for the annotations of the classes.
+ *
+ * <p>The annotations are found by reading the class files, so only the classes with a registered annotation
+ * are loaded, unless one of the registered annotations is {@link Inherited}.
+ * If all the registered annotations are {@link Indexed}, the class files of the folders and jars
+ * that have an index generated by the {@link ComponentIndexProcessor} are not read, the index is used instead.
+ * The folders and the jars containing the package are walked in parallel and the class files
+ * are read in parallel, using the common {@link java.util.concurrent.ForkJoinPool}
+ * (the jars are read directly from their zip central directory by the {@link JarScanner}),
+ * but the actions are always called by the thread that calls
+ * {@link #scanClassPathPackageForAnnotations(Class)}, in the order of the class names
+ * then in the order of the registration of the actions.
+ */
+public final class AnnotationScanner {
+  private final LinkedHashMap<Class<? extends Annotation>, Consumer<? super Class<?>>> actionMap = new LinkedHashMap<>();
+  private Path cacheFile;
+
+  static Stream<String> findAllJavaFilesInFolder(Path folder) throws IOException {
+    return Files.list(folder)
+        .map(path -> path.getFileName().toString())
+        .filter(filename -> filename.endsWith(".class"))
+        .map(filename -> filename.substring(0, filename.length() - ".class".length()));
+  }
+
+  private interface FolderFunction<R> {
+    R apply(Path folder) throws IOException;
+  }
+
+  // calls the function with the folder of a URL, if the folder is inside a jar, the jar is opened then closed
+  private static <R> R withFolder(URL url, FolderFunction<? extends R> function) {
+    try {
+      var uri = url.toURI();
+      if (!uri.getScheme().equals("jar")) {
+        return function.apply(Path.of(uri));
+      }
+      FileSystem fileSystem;
+      try {
+        fileSystem = FileSystems.newFileSystem(uri, Map.of());
+      } catch(FileSystemAlreadyExistsException e) {
+        return function.apply(Path.of(uri));  // opened by someone else, do not close it
+      }
+      try(fileSystem) {
+        return function.apply(Path.of(uri));
+      }
+    } catch (IOException | URISyntaxException e) {
+      throw new IllegalStateException("error while scanning " + url, e);
+    }
+  }
+
+  private static List<URL> findAllFolders(String packageName, ClassLoader classLoader) {
+    var folderName = packageName.replace('.', '/');
+    var urls = Collections.list(Utils2.getResources(folderName, classLoader));
+    if (urls.isEmpty()) {
+      throw new IllegalStateException("no folder for package " + packageName + " found");
+    }
+    return urls;
+  }
+
+  // package visibility for testing
+  // the names of the classes of the package sorted by name, the folders are scanned in parallel
+  static List<String> findAllClassNames(String packageName, ClassLoader classLoader) {
+    return findAllFolders(packageName, classLoader).parallelStream()
+        .flatMap(url -> withFolder(url, folder -> {
+          try(var stream = findAllJavaFilesInFolder(folder)) {
+            return stream.toList();
+          }
+        }).stream())
+        .distinct()   // a class can be in several folders, the class loader will choose one
+        .sorted()
+        .map(className -> packageName + '.' + className)
+        .toList();
+  }
+
+  /**
+   * A class of a package and the names of its annotations, read from the class file or from an index.
+   */
+  record ClassInfo(String className, List<String> annotationNames) { }
+
+  // package visibility for testing
+  // the classes of the package sorted by name with their annotations, without loading the classes,
+  // the folders and the class files are read in parallel
+  static List<ClassInfo> findAllClassInfos(String packageName, ClassLoader classLoader) {
+    return findAllClassInfos(packageName, classLoader, Map.of(), null);
+  }
+
+  // the folders of a classpath entry with an index in indexMap are not walked,
+  // the folders in the cache (if not null) are only walked if they have changed
+  private static List<ClassInfo> findAllClassInfos(String packageName, ClassLoader classLoader, Map<String, ComponentIndex> indexMap, ScanCache cache) {
+    var folderName = packageName.replace('.', '/');
+    var classInfos = findAllFolders(packageName, classLoader).parallelStream()
+        .flatMap(url -> {
+          var index = indexMap.get(ComponentIndex.root(url, folderName));
+          if (index != null) {
+            return index.classInfos(packageName).stream();
+          }
+          if (cache != null) {
+            return findAllClassInfos(url, packageName, cache).stream();
+          }
+          return findAllClassInfos(url, packageName).stream();
+        })
+        .toList();
+    var classInfoMap = new TreeMap<String, ClassInfo>();
+    for(var classInfo: classInfos) {
+      classInfoMap.putIfAbsent(classInfo.className, classInfo);  // the first folder wins like in the class loader
+    }
+    return List.copyOf(classInfoMap.values());
+  }
+
+  private static List<ClassInfo> findAllClassInfos(URL url, String packageName, ScanCache cache) {
+    var fingerprint = ScanCache.fingerprint(url);
+    if (fingerprint == null) {
+      return findAllClassInfos(url, packageName);
+    }
+    var classInfos = cache.get(url, fingerprint);
+    if (classInfos == null) {
+      classInfos = findAllClassInfos(url, packageName);
+      cache.put(url, fingerprint, classInfos);
+    }
+    return classInfos;
+  }
+
+  private static List<ClassInfo> findAllClassInfos(URL url, String packageName) {
+    try {
+      var jar = JarScanner.jarPath(url.toURI());
+      if (jar != null) {
+        var classInfos = JarScanner.findAllClassInfos(jar, packageName);
+        if (classInfos != null) {
+          return classInfos;
+        }
+        // not supported by the jar scanner, use the zip file system
+      }
+    } catch (IOException | URISyntaxException e) {
+      throw new IllegalStateException("error while scanning " + url, e);
+    }
+    return findAllClassInfosInFolder(url, packageName);
+  }
+
+  // package visibility for testing
+  // reads the class files of the folder of a URL, a jar is read using the zip file system
+  static List<ClassInfo> findAllClassInfosInFolder(URL url, String packageName) {
+    return withFolder(url, folder -> {
+      List<Path> paths;
+      try(var stream = Files.list(folder)) {
+        paths = stream.filter(path -> path.getFileName().toString().endsWith(".class")).toList();
+      }
+      return paths.parallelStream()
+          .map(path -> {
+            var filename = path.getFileName().toString();
+            var className = packageName + '.' + filename.substring(0, filename.length() - ".class".length());
+            try {
+              return new ClassInfo(className, ClassFileReader.readAnnotationNames(path));
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          })
+          .toList();
+    });
+  }
+
+  static List<Class<?>> findAllClasses(String packageName, ClassLoader classLoader) {
+    return findAllClassNames(packageName, classLoader).parallelStream()
+        .<Class<?>>map(className -> Utils2.loadClass(className, classLoader))
+        .toList();
+  }
+
+  public void addAction(Class<? extends Annotation> annotationClass, Consumer<? super Class<?>> action) {
+    requireNonNull(annotationClass);
+    requireNonNull(action);
+    if (actionMap.putIfAbsent(annotationClass, action) != null) {
+      throw new IllegalStateException("an action is already registered for annotation " + annotationClass.getName());
+    }
+  }
+
+  // the registered annotation classes present on a class, in the order of registration
+  private List<Class<? extends Annotation>> findActionAnnotations(Class<?> type) {
+    var annotationClasses = new ArrayList<Class<? extends Annotation>>();
+    for(var annotationClass: actionMap.keySet()) {
+      if (type.isAnnotationPresent(annotationClass)) {
+        annotationClasses.add(annotationClass);
+      }
+    }
+    return annotationClasses;
+  }
+
+  /**
+   * Sets the file used to store the annotated classes of the scanned folders between two runs,
+   * the class files of a folder are only read again if the folder or the jar containing it has changed.
+   *
+   * @param cacheFile the cache file, created by the first scan.
+   */
+  public void setCacheFile(Path cacheFile) {
+    this.cacheFile = requireNonNull(cacheFile);
+  }
+
+  public void scanClassPathPackageForAnnotations(Class<?> classInPackage) {
+    requireNonNull(classInPackage);
+    scanClassPathPackageForAnnotations(classInPackage.getPackageName(), classInPackage.getClassLoader());
+  }
+
+  void scanClassPathPackageForAnnotations(String packageName, ClassLoader classLoader) {
+    var indexed = true;
+    for(var annotationClass: actionMap.keySet()) {
+      if (annotationClass.isAnnotationPresent(Inherited.class)) {
+        // the annotations of the super classes are not in the class file, all the classes have to be loaded
+        scanLoadedClasses(packageName, classLoader);
+        return;
+      }
+      indexed &= annotationClass.isAnnotationPresent(Indexed.class);
+    }
+
+    // the indexes can only be used if they contain all the registered annotations
+    var indexMap = indexed? ComponentIndex.findAll(classLoader): Map.<String, ComponentIndex>of();
+
+    var cache = (cacheFile == null)? null: ScanCache.load(cacheFile);
+    var classInfos = findAllClassInfos(packageName, classLoader, indexMap, cache);
+    if (cache != null) {
+      cache.save();
+    }
+
+    // only the classes with at least one registered annotation are loaded
+    for(var classInfo: classInfos) {
+      Class<?> type = null;
+      for(var entry: actionMap.entrySet()) {
+        if (classInfo.annotationNames.contains(entry.getKey().getName())) {
+          if (type == null) {
+            type = Utils2.loadClass(classInfo.className, classLoader);
+          }
+          entry.getValue().accept(type);
+        }
+      }
+    }
+  }
+
+  private void scanLoadedClasses(String packageName, ClassLoader classLoader) {
+    var classes = findAllClasses(packageName, classLoader);
+    var annotationClassesList = classes.parallelStream()
+        .map(this::findActionAnnotations)
+        .toList();
+    for(var i = 0; i < classes.size(); i++) {
+      var type = classes.get(i);
+      for(var annotationClass: annotationClassesList.get(i)) {
+        actionMap.get(annotationClass).accept(type);
+      }
+    }
+  }
 }
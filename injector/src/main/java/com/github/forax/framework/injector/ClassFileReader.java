@@ -0,0 +1,207 @@
+package com.github.forax.framework.injector;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A minimal reader of class files that only decodes the constant pool and
+ * the attribute {@code RuntimeVisibleAnnotations} of a class,
+ * so the annotations of a class can be known without loading the class.
+ *
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html">The class file format</a>
+ */
+final class ClassFileReader {
+  private ClassFileReader() {
+    throw new AssertionError();
+  }
+
+  private static final int MAGIC = 0xCAFEBABE;
+  private static final byte[] RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations".getBytes(StandardCharsets.US_ASCII);
+
+  // a buffer by thread, reused to read the class files
+  private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(8_192));
+
+  /**
+   * Returns the names of the classes of the runtime visible annotations of a class file.
+   *
+   * @param path the path of a class file.
+   * @return the names (as returned by {@link Class#getName()}) of the annotations of the class.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalStateException if the file is not a valid class file.
+   */
+  static List<String> readAnnotationNames(Path path) throws IOException {
+    try(var channel = Files.newByteChannel(path)) {
+      var size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IllegalStateException("invalid class file " + path);
+      }
+      var buffer = BUFFERS.get();
+      if (buffer.capacity() < size) {
+        buffer = ByteBuffer.allocate(Math.max((int) size, buffer.capacity() << 1));
+        BUFFERS.set(buffer);
+      }
+      buffer.clear().limit((int) size);
+      while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+        // empty
+      }
+      buffer.flip();
+      return readAnnotationNames(buffer);
+    }
+  }
+
+  /**
+   * Returns the names of the classes of the runtime visible annotations of a class file.
+   *
+   * @param buffer the content of a class file, from its position to its limit.
+   * @return the names (as returned by {@link Class#getName()}) of the annotations of the class.
+   * @throws IllegalStateException if the content is not a valid class file.
+   */
+  static List<String> readAnnotationNames(ByteBuffer buffer) {
+    try {
+      return parse(buffer.slice().order(ByteOrder.BIG_ENDIAN));
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {  // truncated or corrupted
+      throw new IllegalStateException("invalid class file", e);
+    }
+  }
+
+  private static List<String> parse(ByteBuffer buffer) {
+    if (buffer.getInt() != MAGIC) {
+      throw new IllegalStateException("invalid class file, bad magic number");
+    }
+    buffer.position(buffer.position() + 4);  // minor and major versions
+
+    // constant pool, only the offsets of the UTF8 entries are recorded
+    var constantPoolCount = buffer.getShort() & 0xFFFF;
+    var utf8Offsets = new int[constantPoolCount];
+    for(var i = 1; i < constantPoolCount; i++) {
+      var tag = buffer.get();
+      switch (tag) {
+        case 1 -> {  // Utf8
+          utf8Offsets[i] = buffer.position();
+          skip(buffer, buffer.getShort() & 0xFFFF);
+        }
+        case 7, 8, 16, 19, 20 -> skip(buffer, 2);  // Class, String, MethodType, Module, Package
+        case 15 -> skip(buffer, 3);  // MethodHandle
+        case 3, 4, 9, 10, 11, 12, 17, 18 -> skip(buffer, 4);  // Integer, Float, refs, NameAndType, Dynamic, InvokeDynamic
+        case 5, 6 -> {  // Long, Double use two entries
+          skip(buffer, 8);
+          i++;
+        }
+        default -> throw new IllegalStateException("invalid class file, unknown constant pool tag " + tag);
+      }
+    }
+
+    skip(buffer, 6);  // access flags, this class, super class
+    skip(buffer, 2 * (buffer.getShort() & 0xFFFF));  // interfaces
+    skipMembers(buffer);  // fields
+    skipMembers(buffer);  // methods
+
+    var attributeCount = buffer.getShort() & 0xFFFF;
+    for(var i = 0; i < attributeCount; i++) {
+      var nameIndex = buffer.getShort() & 0xFFFF;
+      var length = buffer.getInt();
+      if (utf8Equals(buffer, utf8Offsets[nameIndex], RUNTIME_VISIBLE_ANNOTATIONS)) {
+        return annotationNames(buffer, utf8Offsets);
+      }
+      skip(buffer, length);
+    }
+    return List.of();
+  }
+
+  private static void skip(ByteBuffer buffer, int length) {
+    buffer.position(buffer.position() + length);
+  }
+
+  private static void skipMembers(ByteBuffer buffer) {
+    var count = buffer.getShort() & 0xFFFF;
+    for(var i = 0; i < count; i++) {
+      skip(buffer, 6);  // access flags, name, descriptor
+      var attributeCount = buffer.getShort() & 0xFFFF;
+      for(var j = 0; j < attributeCount; j++) {
+        skip(buffer, 2);
+        skip(buffer, buffer.getInt());
+      }
+    }
+  }
+
+  private static boolean utf8Equals(ByteBuffer buffer, int offset, byte[] bytes) {
+    if (offset == 0) {
+      throw new IllegalStateException("invalid class file, not an UTF8 constant");
+    }
+    var length = buffer.getShort(offset) & 0xFFFF;
+    if (length != bytes.length) {
+      return false;
+    }
+    for(var i = 0; i < length; i++) {
+      if (buffer.get(offset + 2 + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String utf8(ByteBuffer buffer, int offset) {
+    if (offset == 0) {
+      throw new IllegalStateException("invalid class file, not an UTF8 constant");
+    }
+    var length = buffer.getShort(offset) & 0xFFFF;
+    var chars = new char[length];
+    var charCount = 0;
+    for(var i = offset + 2; i < offset + 2 + length;) {  // modified UTF-8
+      var b = buffer.get(i++) & 0xFF;
+      if (b < 0x80) {
+        chars[charCount++] = (char) b;
+      } else if ((b & 0xE0) == 0xC0) {
+        chars[charCount++] = (char) (((b & 0x1F) << 6) | (buffer.get(i++) & 0x3F));
+      } else {
+        chars[charCount++] = (char) (((b & 0x0F) << 12) | ((buffer.get(i++) & 0x3F) << 6) | (buffer.get(i++) & 0x3F));
+      }
+    }
+    return new String(chars, 0, charCount);
+  }
+
+  private static List<String> annotationNames(ByteBuffer buffer, int[] utf8Offsets) {
+    var count = buffer.getShort() & 0xFFFF;
+    var names = new ArrayList<String>(count);
+    for(var i = 0; i < count; i++) {
+      var descriptor = utf8(buffer, utf8Offsets[buffer.getShort() & 0xFFFF]);  // Lfoo/bar/Baz;
+      names.add(descriptor.substring(1, descriptor.length() - 1).replace('/', '.'));
+      skipElementValuePairs(buffer);
+    }
+    return names;
+  }
+
+  private static void skipElementValuePairs(ByteBuffer buffer) {
+    var pairCount = buffer.getShort() & 0xFFFF;
+    for(var i = 0; i < pairCount; i++) {
+      skip(buffer, 2);  // name
+      skipElementValue(buffer);
+    }
+  }
+
+  private static void skipElementValue(ByteBuffer buffer) {
+    var tag = buffer.get();
+    switch (tag) {
+      case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's', 'c' -> skip(buffer, 2);
+      case 'e' -> skip(buffer, 4);
+      case '@' -> {
+        skip(buffer, 2);  // type
+        skipElementValuePairs(buffer);
+      }
+      case '[' -> {
+        var count = buffer.getShort() & 0xFFFF;
+        for(var i = 0; i < count; i++) {
+          skipElementValue(buffer);
+        }
+      }
+      default -> throw new IllegalStateException("invalid class file, unknown element value tag " + (char) tag);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.github.forax.framework.injector;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+
+/**
+ * The index of the classes of a classpath entry (a folder or a jar) annotated by an annotation marked as {@link Indexed},
+ * grouped by annotation type. The index is written by the {@link ComponentIndexProcessor}
+ * in the file {@value #INDEX_NAME}, one line by annotation type
+ * <pre>
+ *   com.example.Component=com.example.Dao,com.example.Service
+ * </pre>
+ */
+final class ComponentIndex {
+  static final String INDEX_NAME = "META-INF/injector/components.index";
+
+  private final Map<String, List<String>> classNamesMap;  // annotation name -> sorted class names
+
+  private ComponentIndex(Map<String, List<String>> classNamesMap) {
+    this.classNamesMap = classNamesMap;
+  }
+
+  static void write(SortedMap<String, SortedSet<String>> classNamesMap, Writer writer) throws IOException {
+    for(var entry: classNamesMap.entrySet()) {
+      writer.write(entry.getKey() + '=' + String.join(",", entry.getValue()) + '\n');
+    }
+  }
+
+  static ComponentIndex read(BufferedReader reader) throws IOException {
+    var classNamesMap = new HashMap<String, List<String>>();
+    String line;
+    while((line = reader.readLine()) != null) {
+      line = line.strip();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      var index = line.indexOf('=');
+      if (index == -1) {
+        throw new IllegalStateException("invalid component index line " + line);
+      }
+      var classNames = line.substring(index + 1);
+      classNamesMap.put(line.substring(0, index), classNames.isEmpty()? List.of(): List.of(classNames.split(",")));
+    }
+    return new ComponentIndex(classNamesMap);
+  }
+
+  /**
+   * Returns the root URL of a resource, the URL without the name of the resource.
+   */
+  static String root(URL url, String resourceName) {
+    var text = url.toString();
+    if (text.endsWith("/")) {
+      text = text.substring(0, text.length() - 1);
+    }
+    if (!text.endsWith(resourceName)) {
+      throw new IllegalStateException("resource " + url + " does not end with " + resourceName);
+    }
+    return text.substring(0, text.length() - resourceName.length());
+  }
+
+  /**
+   * Finds the indexes visible from a class loader.
+   * @return a map that associates the root URL of each indexed classpath entry to its index.
+   */
+  static Map<String, ComponentIndex> findAll(ClassLoader classLoader) {
+    var indexMap = new HashMap<String, ComponentIndex>();
+    for(var url: Collections.list(Utils2.getResources(INDEX_NAME, classLoader))) {
+      try(var reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+        indexMap.putIfAbsent(root(url, INDEX_NAME), read(reader));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return indexMap;
+  }
+
+  /**
+   * Returns the classes of a package with the names of their indexed annotations, sorted by class name.
+   */
+  List<AnnotationScanner.ClassInfo> classInfos(String packageName) {
+    var annotationNamesMap = new TreeMap<String, List<String>>();
+    classNamesMap.forEach((annotationName, classNames) -> {
+      for(var className: classNames) {
+        var index = className.lastIndexOf('.');
+        if (packageName.equals(index == -1? "": className.substring(0, index))) {
+          annotationNamesMap.computeIfAbsent(className, __ -> new ArrayList<>()).add(annotationName);
+        }
+      }
+    });
+    return annotationNamesMap.entrySet().stream()
+        .map(entry -> new AnnotationScanner.ClassInfo(entry.getKey(), List.copyOf(entry.getValue())))
+        .toList();
+  }
+}
@@ -0,0 +1,68 @@
+package com.github.forax.framework.injector;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * An annotation processor that records the classes annotated by an annotation marked as {@link Indexed}
+ * in the file {@value ComponentIndex#INDEX_NAME} of the compiled classes,
+ * the {@link AnnotationScanner} then reads that index instead of walking the class files.
+ *
+ * <p>The processor is enabled with the option {@code -processor} of javac
+ * <pre>
+ *   javac -processor com.github.forax.framework.injector.ComponentIndexProcessor ...
+ * </pre>
+ * All the classes of a folder or a jar must be compiled together, an index only describes
+ * the classes compiled with it.
+ */
+@SupportedAnnotationTypes("*")
+public final class ComponentIndexProcessor extends AbstractProcessor {
+  private final TreeMap<String, SortedSet<String>> classNamesMap = new TreeMap<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    var elementUtils = processingEnv.getElementUtils();
+    for(var annotation: annotations) {
+      if (annotation.getAnnotation(Indexed.class) == null) {
+        continue;
+      }
+      var annotationName = elementUtils.getBinaryName(annotation).toString();
+      for(var element: roundEnv.getElementsAnnotatedWith(annotation)) {
+        if (element instanceof TypeElement typeElement) {
+          classNamesMap.computeIfAbsent(annotationName, __ -> new TreeSet<>())
+              .add(elementUtils.getBinaryName(typeElement).toString());
+        }
+      }
+    }
+    if (roundEnv.processingOver()) {
+      writeIndex();
+    }
+    return false;  // other processors can process the same annotations
+  }
+
+  private void writeIndex() {
+    try {
+      var resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.INDEX_NAME);
+      try(var writer = resource.openWriter()) {
+        ComponentIndex.write(classNamesMap, writer);
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "can not write " + ComponentIndex.INDEX_NAME + ": " + e.getMessage());
+    }
+  }
+}
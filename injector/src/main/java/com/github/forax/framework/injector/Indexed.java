@@ -0,0 +1,16 @@
+package com.github.forax.framework.injector;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.ANNOTATION_TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks an annotation type whose annotated classes are recorded at compile time
+ * by the {@link ComponentIndexProcessor}, so the {@link AnnotationScanner}
+ * can find them without walking the class files.
+ */
+@Retention(RUNTIME)
+@Target(ANNOTATION_TYPE)
+public @interface Indexed { }
@@ -1,16 +1,159 @@
 package com.github.forax.framework.injector;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
+import static java.lang.invoke.MethodType.methodType;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
 
 public final class InjectorRegistry {
 //	private final HashMap<Class<?>, Object> instances = new HashMap<>();
-	private final HashMap<Class<?>, Supplier<?>> instances = new HashMap<>(); // Supplier<?> equivalent à Supplier<? extends Object>
+	private final LinkedHashMap<Class<?>, Supplier<?>> instances = new LinkedHashMap<>(); // Supplier<?> equivalent à Supplier<? extends Object>, ordre d'enregistrement
+	private volatile Map<Class<?>, Supplier<?>> frozenInstances; // non null apres freeze(), table immutable
+	
+	/**
+	 * A supplier that calls the supplier of a binding only once, the first call creates the instance
+	 * while holding the lock of this binding only, the later calls only do a volatile read.
+	 */
+	private static final class SingletonSupplier<T> implements Supplier<T> {
+		private final ReentrantLock lock = new ReentrantLock(); // pas synchronized qui bloquerait le thread porteur d'un virtual thread
+		private final Supplier<? extends T> supplier;
+		private volatile T instance;
+		
+		private SingletonSupplier(Supplier<? extends T> supplier) {
+			this.supplier = supplier;
+		}
+		
+		@Override
+		public T get() {
+			var instance = this.instance;
+			if(instance != null) {
+				return instance;
+			}
+			lock.lock();
+			try {
+				instance = this.instance;
+				if(instance == null) {
+					instance = requireNonNull(supplier.get(), "the singleton supplier returns null");
+					this.instance = instance; // publication sure (ecriture volatile)
+				}
+				return instance;
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+	
+	/**
+	 * The supplier of a class registered with {@link #registerProviderClass(Class, Class)}.
+	 * At the first call, the constructor and the setters are compiled into one method handle
+	 * that calls the suppliers of the dependencies directly, so the later calls
+	 * do not use the reflection nor lookup the dependencies in the registry.
+	 */
+	private final class ProviderClassSupplier<T> implements Supplier<T> {
+		private final Class<T> type;
+		private final Constructor<?> init;
+		private final List<PropertyDescriptor> properties;
+		private volatile MethodHandle factory; // ()Object
+		
+		private ProviderClassSupplier(Class<T> type, Constructor<?> init, List<PropertyDescriptor> properties) {
+			this.type = type;
+			this.init = init;
+			this.properties = properties;
+		}
+		
+		private MethodHandle factory() {
+			var factory = this.factory;
+			if(factory == null) {
+				factory = compileFactory(init, properties); // compiler deux fois en cas de course n'est pas un probleme
+				this.factory = factory;
+			}
+			return factory;
+		}
+		
+		// les types des parametres du constructeur puis des setters
+		private List<Class<?>> dependencies() {
+			var dependencies = new ArrayList<Class<?>>(List.of(init.getParameterTypes()));
+			for(var property: properties) {
+				dependencies.add(property.getWriteMethod().getParameterTypes()[0]);
+			}
+			return dependencies;
+		}
+		
+		@Override
+		public T get() {
+			return type.cast(Utils.invokeFactory(factory()));
+		}
+	}
+	
+	// null si la valeur n'est pas fournie par une classe enregistree avec registerProviderClass
+	private static ProviderClassSupplier<?> providerClassSupplier(Supplier<?> supplier) {
+		if(supplier instanceof SingletonSupplier<?> singletonSupplier) {
+			supplier = singletonSupplier.supplier;
+		}
+		return (supplier instanceof ProviderClassSupplier<?> providerClassSupplier)? providerClassSupplier: null;
+	}
+	
+	private static final MethodHandle SUPPLIER_GET;
+	static {
+		try {
+			SUPPLIER_GET = MethodHandles.publicLookup().findVirtual(Supplier.class, "get", methodType(Object.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new AssertionError(e);
+		}
+	}
+	
+	// ()type, appelle directement le supplier de la dependance
+	private MethodHandle dependency(Class<?> type) {
+		return SUPPLIER_GET.bindTo(binding(type)).asType(methodType(type));
+	}
+	
+	private MethodHandle compileFactory(Constructor<?> init, List<PropertyDescriptor> properties) {
+		var lookup = MethodHandles.lookup();
+		var beanType = init.getDeclaringClass();
+		MethodHandle factory;
+		MethodHandle[] setters;
+		try {
+			factory = lookup.unreflectConstructor(init);
+			setters = new MethodHandle[properties.size()];
+			for(var i = 0; i < setters.length; i++) {
+				setters[i] = lookup.unreflect(properties.get(i).getWriteMethod());
+			}
+		} catch (IllegalAccessException e) {
+			throw (IllegalAccessError) new IllegalAccessError().initCause(e);
+		}
+		
+		// new BeanType(dependency1.get(), dependency2.get(), ...)
+		var parameterTypes = init.getParameterTypes();
+		for(var i = parameterTypes.length; --i >= 0;) {
+			factory = MethodHandles.collectArguments(factory, i, dependency(parameterTypes[i]));
+		}
+		
+		// bean -> { bean.setter1(dependency.get()); ...; return bean; }, les setters sont appeles dans l'ordre
+		var initializer = MethodHandles.identity(beanType);
+		for(var i = setters.length; --i >= 0;) {
+			var setter = setters[i];
+			setter = setter.asType(setter.type().changeParameterType(0, beanType));
+			setter = MethodHandles.collectArguments(setter, 1, dependency(setter.type().parameterType(1)));
+			initializer = MethodHandles.foldArguments(initializer, setter);
+		}
+		
+		factory = MethodHandles.filterReturnValue(factory, initializer);
+		return factory.asType(methodType(Object.class));
+	}
 	
 	private static List<PropertyDescriptor> beanProperties(Class<?> type) {
 	      var properties = Utils.beanInfo(type).getPropertyDescriptors();
@@ -48,6 +191,7 @@ public final class InjectorRegistry {
 	public <T> void registerProvider(Class<T> type, Supplier<? extends T> supplier) {
 		requireNonNull(type);
 		requireNonNull(supplier);
+		checkNotFrozen();
 		if(instances.putIfAbsent(type, supplier) != null) {
 			throw new IllegalStateException("The type : " + type.getName() + " is already registered");
 		}
@@ -56,39 +200,210 @@ public final class InjectorRegistry {
 	public <T> void registerProviderClass(Class<T> type, Class<? extends T> providerClass) {
 		requireNonNull(type);
 		requireNonNull(providerClass);
+		checkNotFrozen();
 		var init = findConstructor(providerClass);
-		var initParametersTypes = init.getParameterTypes();
 		var properties = findInjectableProperties(providerClass);
 		
-		// tout ce qui est a l'exterieur de la lambda sera execute qune seule fois
-		// alors que tout ce qui est a l'interieur de la lambda seront executés à chaque appel de la lambda
-		
-		registerProvider(type, () -> {
-			var arguments = Arrays.stream(initParametersTypes)
-					.map(this::lookupInstance)
-					.toArray();
-			var newInstance = Utils.newInstance(init, arguments);
-			for(var property: properties) {
-				var setter = property.getWriteMethod();
-				var argument = lookupInstance(setter.getParameterTypes()[0]); // un setter a toujours un seul argument
-				Utils.invokeMethod(newInstance, setter, argument); // <=> newInstance.setter(argument)
-			}
-			
-			return type.cast(newInstance);
-		});
+		// la factory est compilee au premier appel car les dependances peuvent etre enregistrees apres
+		var supplier = new ProviderClassSupplier<>(type, init, properties);
+		registerProvider(type, providerClass.isAnnotationPresent(Singleton.class)? new SingletonSupplier<>(supplier): supplier);
 	}
 	
 	public <T> void registerProviderClass(Class<T> providerClass) {
 		registerProviderClass(providerClass, providerClass);
 	}
 	
-	public <T> T lookupInstance(Class<T> type) {
-		requireNonNull(type);
-		var instance = instances.get(type);
+	private void checkNotFrozen() {
+		if(frozenInstances != null) {
+			throw new IllegalStateException("The registry is frozen");
+		}
+	}
+	
+	/**
+	 * Freezes the registry, no type can be registered after this call.
+	 * The registrations are copied into an immutable table published by a volatile write,
+	 * so the threads that look up instances after the freeze do not need any lock.
+	 *
+	 * @throws IllegalStateException if the registry is already frozen.
+	 */
+	public void freeze() {
+		checkNotFrozen();
+		frozenInstances = Map.copyOf(instances);
+	}
+	
+	public boolean isFrozen() {
+		return frozenInstances != null;
+	}
+	
+	private Supplier<?> binding(Class<?> type) {
+		var frozenInstances = this.frozenInstances; // une seule lecture volatile
+		var instance = (frozenInstances != null)? frozenInstances.get(type): instances.get(type);
 		if(instance == null) {
 			throw new IllegalStateException("Ne instance associated with this type");
 		}
+		return instance;
+	}
+	
+	public <T> T lookupInstance(Class<T> type) {
+		requireNonNull(type);
+		return type.cast(binding(type).get());
+	}
+	
+	/**
+	 * Checks the dependency graph of the registered types, the dependencies of a class registered with
+	 * {@link #registerProviderClass(Class, Class)} are the parameters of its constructor
+	 * and of its setters annotated with {@link Inject}.
+	 *
+	 * @throws IllegalStateException if a dependency is not registered or if there is a dependency cycle.
+	 */
+	public void validate() {
+		topologicalOrder();
+	}
+	
+	/**
+	 * Validates the registry, freezes it if it is not already frozen,
+	 * then compiles all the provider classes and creates the singletons, the dependencies first,
+	 * so the first lookups do not pay for it.
+	 *
+	 * @throws IllegalStateException if the registry is not valid.
+	 *
+	 * @see #validate()
+	 * @see #freeze()
+	 */
+	public void start() {
+		var order = topologicalOrder();
+		if(!isFrozen()) {
+			freeze();
+		}
+		for(var type: order) {
+			initialize(binding(type));
+		}
+	}
+	
+	/**
+	 * Like {@link #start()} but the types are grouped by dependency level, the types of a level
+	 * only depend on the types of the previous levels, and the singletons of a level
+	 * are created concurrently, each one in a virtual thread.
+	 * If the creation of some singletons fails, the next levels are not started and
+	 * all the failures of the level are reported together.
+	 *
+	 * @throws IllegalStateException if the registry is not valid or if the creation of a singleton fails,
+	 *   the exceptions thrown by the creations are added as suppressed exceptions.
+	 *
+	 * @see #start()
+	 */
+	public void startInParallel() {
+		var levels = dependencyLevels();
+		if(!isFrozen()) {
+			freeze();
+		}
+		try(var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for(var level: levels) {
+				var futures = new ArrayList<Future<?>>();
+				for(var type: level) {
+					var supplier = binding(type);
+					futures.add(executor.submit(() -> initialize(supplier)));
+				}
+				var failures = new ArrayList<Throwable>();
+				for(var future: futures) {
+					try {
+						future.get();
+					} catch (ExecutionException e) {
+						failures.add(e.getCause());
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IllegalStateException("Interrupted while starting", e);
+					}
+				}
+				if(!failures.isEmpty()) {
+					var exception = new IllegalStateException("Failed to start " + failures.size() + " type(s)");
+					failures.forEach(exception::addSuppressed);
+					throw exception;
+				}
+			}
+		}
+	}
+	
+	// package visibility for testing
+	// les types groupes par niveau, les types d'un niveau dependent seulement des types des niveaux precedents
+	List<List<Class<?>>> dependencyLevels() {
+		var levels = new ArrayList<List<Class<?>>>();
+		var levelMap = new HashMap<Class<?>, Integer>();
+		for(var type: topologicalOrder()) { // les dependances d'un type ont deja un niveau
+			var level = 0;
+			var providerClassSupplier = providerClassSupplier(instances.get(type));
+			if(providerClassSupplier != null) {
+				for(var dependency: providerClassSupplier.dependencies()) {
+					level = Math.max(level, levelMap.get(dependency) + 1);
+				}
+			}
+			levelMap.put(type, level);
+			if(level == levels.size()) {
+				levels.add(new ArrayList<>());
+			}
+			levels.get(level).add(type);
+		}
+		return levels;
+	}
+	
+	private static void initialize(Supplier<?> supplier) {
+		var providerClassSupplier = providerClassSupplier(supplier);
+		if(providerClassSupplier != null) {
+			providerClassSupplier.factory();
+		}
+		if(supplier instanceof SingletonSupplier<?> singletonSupplier) {
+			singletonSupplier.get();
+		}
+	}
+	
+	// package visibility for testing
+	// les types enregistres, chaque type apparait apres ses dependances
+	List<Class<?>> topologicalOrder() {
+		var missings = new ArrayList<String>();
+		instances.forEach((type, supplier) -> {
+			var providerClassSupplier = providerClassSupplier(supplier);
+			if(providerClassSupplier == null) {
+				return;
+			}
+			for(var dependency: providerClassSupplier.dependencies()) {
+				if(!instances.containsKey(dependency)) {
+					missings.add(dependency.getName() + " required by " + type.getName());
+				}
+			}
+		});
+		if(!missings.isEmpty()) {
+			throw new IllegalStateException("Missing bindings : " + String.join(", ", missings));
+		}
 		
-		return type.cast(instance.get());
+		var order = new ArrayList<Class<?>>();
+		var visited = new HashMap<Class<?>, Boolean>(); // false: en cours de visite, true: visite
+		var path = new ArrayList<Class<?>>();
+		for(var type: instances.keySet()) {
+			visit(type, visited, path, order);
+		}
+		return order;
+	}
+	
+	private void visit(Class<?> type, HashMap<Class<?>, Boolean> visited, ArrayList<Class<?>> path, ArrayList<Class<?>> order) {
+		var state = visited.get(type);
+		if(state != null) {
+			if(!state) {
+				var cycle = new ArrayList<>(path.subList(path.indexOf(type), path.size()));
+				cycle.add(type);
+				throw new IllegalStateException("Dependency cycle : " + cycle.stream().map(Class::getName).collect(joining(" -> ")));
+			}
+			return;
+		}
+		visited.put(type, false);
+		path.add(type);
+		var providerClassSupplier = providerClassSupplier(instances.get(type));
+		if(providerClassSupplier != null) {
+			for(var dependency: providerClassSupplier.dependencies()) {
+				visit(dependency, visited, path, order);
+			}
+		}
+		path.remove(path.size() - 1);
+		visited.put(type, true);
+		order.add(type);
 	}
 }
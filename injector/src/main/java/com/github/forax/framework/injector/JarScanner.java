@@ -0,0 +1,222 @@
+package com.github.forax.framework.injector;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Finds the annotations of the classes of a package inside a jar by reading the zip central directory
+ * of the memory mapped jar, the entries are filtered on the bytes of their names so only the names
+ * of the class files of the package are decoded, and only those class files are inflated.
+ *
+ * <p>The JDK has no API to unmap a file, the mapping is released when the mapped buffer is garbage collected,
+ * until then the jar can not be deleted or replaced on Windows. To limit how long the mapping lives,
+ * the mapped buffer never escapes {@link #findAllClassInfos(Path, String)}: the class files are parsed
+ * before the method returns and only the names of the classes and of their annotations are kept.
+ *
+ * @see <a href="https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT">The zip file format</a>
+ */
+final class JarScanner {
+  private JarScanner() {
+    throw new AssertionError();
+  }
+
+  private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+  private static final int CENTRAL_DIRECTORY_ENTRY = 0x02014b50;
+  private static final int LOCAL_HEADER = 0x04034b50;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+  private static final int STORED = 0;
+  private static final int DEFLATED = 8;
+  private static final byte[] CLASS_SUFFIX = ".class".getBytes(StandardCharsets.US_ASCII);
+
+  // a class file of the jar, the offset is the offset of its local header
+  private record ClassEntry(String className, int method, int compressedSize, int size, int offset) { }
+
+  /**
+   * Returns the path of the jar of a URI of the form {@code jar:file:/path/to/app.jar!/folder}
+   * or null if the URI is not a folder of a jar of the local file system.
+   */
+  static Path jarPath(URI uri) {
+    if (!uri.getScheme().equals("jar")) {
+      return null;
+    }
+    var text = uri.getRawSchemeSpecificPart();
+    var index = text.indexOf("!/");
+    if (index == -1) {
+      return null;
+    }
+    try {
+      var jarURI = new URI(text.substring(0, index));
+      if (!"file".equals(jarURI.getScheme())) {
+        return null;  // a jar inside a jar
+      }
+      return Path.of(jarURI);
+    } catch (URISyntaxException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the classes of a package stored in a jar with the names of their annotations.
+   *
+   * @param jar the path of the jar.
+   * @param packageName the name of the package.
+   * @return the classes of the package in the order of the central directory, or null if the jar
+   *   uses a feature not supported by this scanner (ZIP64, encryption, compression other than deflate),
+   *   the jar should then be read using {@link java.util.zip.ZipFile}.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalStateException if the jar or a class file is not valid.
+   */
+  static List<AnnotationScanner.ClassInfo> findAllClassInfos(Path jar, String packageName) throws IOException {
+    ByteBuffer buffer;
+    try(var channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+      var size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        return null;
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    var prefix = packageName.isEmpty()? new byte[0]: (packageName.replace('.', '/') + '/').getBytes(StandardCharsets.UTF_8);
+    List<ClassEntry> entries;
+    try {
+      entries = findClassEntries(buffer, prefix, packageName);
+    } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new IllegalStateException("invalid jar " + jar, e);
+    }
+    if (entries == null) {
+      return null;
+    }
+    var unsupported = entries.stream().anyMatch(entry -> entry.method != STORED && entry.method != DEFLATED);
+    if (unsupported) {
+      return null;
+    }
+    return entries.parallelStream()
+        .map(entry -> new AnnotationScanner.ClassInfo(entry.className, ClassFileReader.readAnnotationNames(content(buffer, entry))))
+        .toList();
+  }
+
+  private static List<ClassEntry> findClassEntries(ByteBuffer buffer, byte[] prefix, String packageName) {
+    var end = findEndOfCentralDirectory(buffer);
+    if (end == -1) {
+      throw new IllegalStateException("no zip end of central directory");
+    }
+    var entryCount = buffer.getShort(end + 10) & 0xFFFF;
+    var directoryOffset = buffer.getInt(end + 16);
+    if (entryCount == 0xFFFF || directoryOffset == -1) {
+      return null;  // ZIP64
+    }
+
+    var entries = new ArrayList<ClassEntry>();
+    var offset = directoryOffset;
+    for(var i = 0; i < entryCount; i++) {
+      if (buffer.getInt(offset) != CENTRAL_DIRECTORY_ENTRY) {
+        throw new IllegalStateException("invalid zip central directory entry at " + offset);
+      }
+      var flags = buffer.getShort(offset + 8) & 0xFFFF;
+      var method = buffer.getShort(offset + 10) & 0xFFFF;
+      var compressedSize = buffer.getInt(offset + 20);
+      var size = buffer.getInt(offset + 24);
+      var nameLength = buffer.getShort(offset + 28) & 0xFFFF;
+      var extraLength = buffer.getShort(offset + 30) & 0xFFFF;
+      var commentLength = buffer.getShort(offset + 32) & 0xFFFF;
+      var localHeaderOffset = buffer.getInt(offset + 42);
+      var nameOffset = offset + 46;
+      if (isClassOfPackage(buffer, nameOffset, nameLength, prefix)) {
+        if ((flags & 1) != 0 || compressedSize == -1 || size == -1 || localHeaderOffset == -1) {
+          return null;  // encrypted or ZIP64
+        }
+        var simpleNameLength = nameLength - prefix.length - CLASS_SUFFIX.length;
+        var simpleName = new String(bytes(buffer, nameOffset + prefix.length, simpleNameLength), StandardCharsets.UTF_8);
+        var className = packageName.isEmpty()? simpleName: packageName + '.' + simpleName;
+        entries.add(new ClassEntry(className, method, compressedSize, size, localHeaderOffset));
+      }
+      offset = nameOffset + nameLength + extraLength + commentLength;
+    }
+    return entries;
+  }
+
+  private static int findEndOfCentralDirectory(ByteBuffer buffer) {
+    var limit = Math.max(0, buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE - 0xFFFF);  // the comment is at most 64k
+    for(var offset = buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE; offset >= limit; offset--) {
+      if (buffer.getInt(offset) == END_OF_CENTRAL_DIRECTORY) {
+        return offset;
+      }
+    }
+    return -1;
+  }
+
+  // name == prefix + simpleName + ".class" with no '/' in simpleName
+  private static boolean isClassOfPackage(ByteBuffer buffer, int nameOffset, int nameLength, byte[] prefix) {
+    if (nameLength <= prefix.length + CLASS_SUFFIX.length) {
+      return false;
+    }
+    for(var i = 0; i < prefix.length; i++) {
+      if (buffer.get(nameOffset + i) != prefix[i]) {
+        return false;
+      }
+    }
+    var suffixOffset = nameOffset + nameLength - CLASS_SUFFIX.length;
+    for(var i = 0; i < CLASS_SUFFIX.length; i++) {
+      if (buffer.get(suffixOffset + i) != CLASS_SUFFIX[i]) {
+        return false;
+      }
+    }
+    for(var i = nameOffset + prefix.length; i < suffixOffset; i++) {
+      if (buffer.get(i) == '/') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static byte[] bytes(ByteBuffer buffer, int offset, int length) {
+    var bytes = new byte[length];
+    buffer.get(offset, bytes);
+    return bytes;
+  }
+
+  private static ByteBuffer content(ByteBuffer buffer, ClassEntry entry) {
+    try {
+      if (buffer.getInt(entry.offset) != LOCAL_HEADER) {
+        throw new IllegalStateException("invalid zip local header of " + entry.className);
+      }
+      var nameLength = buffer.getShort(entry.offset + 26) & 0xFFFF;
+      var extraLength = buffer.getShort(entry.offset + 28) & 0xFFFF;
+      var data = buffer.slice(entry.offset + 30 + nameLength + extraLength, entry.compressedSize);
+      if (entry.method == STORED) {
+        return data;
+      }
+      var inflater = new Inflater(/*nowrap=*/ true);
+      try {
+        inflater.setInput(data);
+        var content = new byte[entry.size];
+        var length = 0;
+        while (length < content.length && !inflater.finished()) {
+          var count = inflater.inflate(content, length, content.length - length);
+          if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            break;
+          }
+          length += count;
+        }
+        if (length != content.length) {
+          throw new IllegalStateException("invalid compressed data of " + entry.className);
+        }
+        return ByteBuffer.wrap(content);
+      } finally {
+        inflater.end();
+      }
+    } catch (IndexOutOfBoundsException | DataFormatException e) {
+      throw new IllegalStateException("invalid zip entry " + entry.className, e);
+    }
+  }
+}
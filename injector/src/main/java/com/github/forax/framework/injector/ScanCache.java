@@ -0,0 +1,173 @@
+package com.github.forax.framework.injector;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache, stored in a file, of the annotated classes of the scanned folders.
+ * Each folder has a fingerprint computed from the name, the size and the last modified time
+ * of its class files, or of the jar containing the folder, the classes of a folder
+ * are only read again if its fingerprint has changed.
+ *
+ * <p>The file is a text file, a line for each folder followed by a line for each annotated class
+ * <pre>
+ *   folder file:/app/classes/com/example 1f2e...
+ *   class com.example.Service com.example.Component,com.example.Singleton
+ * </pre>
+ */
+final class ScanCache {
+  private record Entry(String fingerprint, List<AnnotationScanner.ClassInfo> classInfos) { }
+
+  private final Path file;
+  private final ConcurrentHashMap<String, Entry> entryMap;
+  private volatile boolean modified;
+
+  private ScanCache(Path file, ConcurrentHashMap<String, Entry> entryMap) {
+    this.file = file;
+    this.entryMap = entryMap;
+  }
+
+  /**
+   * Loads a cache from a file, if the file does not exist or is not valid the cache is empty.
+   */
+  static ScanCache load(Path file) {
+    var entryMap = new ConcurrentHashMap<String, Entry>();
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    } catch (NoSuchFileException e) {
+      return new ScanCache(file, entryMap);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    String folder = null;
+    String fingerprint = null;
+    ArrayList<AnnotationScanner.ClassInfo> classInfos = null;
+    for(var line: lines) {
+      var parts = line.split(" ");
+      if (parts.length != 3 || !(parts[0].equals("folder") || (parts[0].equals("class") && folder != null))) {
+        return new ScanCache(file, new ConcurrentHashMap<>());  // not a valid cache, start from scratch
+      }
+      if (parts[0].equals("folder")) {
+        if (folder != null) {
+          entryMap.put(folder, new Entry(fingerprint, List.copyOf(classInfos)));
+        }
+        folder = parts[1];
+        fingerprint = parts[2];
+        classInfos = new ArrayList<>();
+        continue;
+      }
+      classInfos.add(new AnnotationScanner.ClassInfo(parts[1], List.of(parts[2].split(","))));
+    }
+    if (folder != null) {
+      entryMap.put(folder, new Entry(fingerprint, List.copyOf(classInfos)));
+    }
+    return new ScanCache(file, entryMap);
+  }
+
+  /**
+   * Saves the cache if it has been modified, the file is replaced atomically.
+   */
+  void save() {
+    if (!modified) {
+      return;
+    }
+    var builder = new StringBuilder();
+    new TreeMap<>(entryMap).forEach((folder, entry) -> {
+      builder.append("folder ").append(folder).append(' ').append(entry.fingerprint).append('\n');
+      for(var classInfo: entry.classInfos) {
+        builder.append("class ").append(classInfo.className()).append(' ').append(String.join(",", classInfo.annotationNames())).append('\n');
+      }
+    });
+    try {
+      var parent = file.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      var temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+      Files.writeString(temporary, builder, StandardCharsets.UTF_8);
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    modified = false;
+  }
+
+  /**
+   * Returns the annotated classes of a folder or null if the folder is not in the cache or has changed.
+   */
+  List<AnnotationScanner.ClassInfo> get(URL folder, String fingerprint) {
+    var entry = entryMap.get(folder.toString());
+    if (entry == null || !entry.fingerprint.equals(fingerprint)) {
+      return null;
+    }
+    return entry.classInfos;
+  }
+
+  /**
+   * Records the annotated classes of a folder, the classes without annotation are not recorded.
+   */
+  void put(URL folder, String fingerprint, List<AnnotationScanner.ClassInfo> classInfos) {
+    var annotatedClassInfos = classInfos.stream()
+        .filter(classInfo -> !classInfo.annotationNames().isEmpty())
+        .toList();
+    entryMap.put(folder.toString(), new Entry(fingerprint, annotatedClassInfos));
+    modified = true;
+  }
+
+  /**
+   * Returns the fingerprint of a folder containing class files or null if the folder can not be fingerprinted.
+   * The fingerprint of a folder in a jar is the fingerprint of the jar.
+   */
+  static String fingerprint(URL folder) {
+    try {
+      var uri = folder.toURI();
+      var digest = MessageDigest.getInstance("SHA-256");
+      switch (uri.getScheme()) {
+        case "file" -> {
+          List<Path> paths;
+          try(var stream = Files.list(Path.of(uri))) {
+            paths = stream.filter(path -> path.getFileName().toString().endsWith(".class")).sorted().toList();
+          }
+          for(var path: paths) {
+            update(digest, path);
+          }
+        }
+        case "jar" -> {
+          var jar = JarScanner.jarPath(uri);
+          if (jar == null) {
+            return null;
+          }
+          update(digest, jar);
+        }
+        default -> {
+          return null;
+        }
+      }
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (IOException | URISyntaxException e) {
+      return null;  // no fingerprint, the folder will be read
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static void update(MessageDigest digest, Path path) throws IOException {
+    var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    var text = path.getFileName() + " " + attributes.size() + " " + attributes.lastModifiedTime().toMillis() + "\n";
+    digest.update(text.getBytes(StandardCharsets.UTF_8));
+  }
+}
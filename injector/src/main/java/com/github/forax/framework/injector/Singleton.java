@@ -0,0 +1,15 @@
+package com.github.forax.framework.injector;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks a class registered with {@link InjectorRegistry#registerProviderClass(Class, Class)}
+ * as a singleton, the instance is created at the first lookup and then always returned.
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface Singleton { }
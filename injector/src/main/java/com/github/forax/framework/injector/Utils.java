@@ -3,6 +3,7 @@ package com.github.forax.framework.injector;
 import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -62,6 +63,14 @@ final class Utils {
     }
   }
 
+  public static Object invokeFactory(MethodHandle factory) {
+    try {
+      return (Object) factory.invokeExact();
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
   @SuppressWarnings("unchecked")   // very wrong but works
   private static <T extends Throwable> AssertionError rethrow(Throwable cause) throws T {
     throw (T) cause;
@@ -6,21 +6,30 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SuppressWarnings("unused")
 public class AnnotationScannerTest {
-  /*
   @Nested
   public class Q1 {
     @Test
@@ -195,5 +204,166 @@ public class AnnotationScannerTest {
     }
 
   }  // end of Q4
-   */
-}
\ No newline at end of file
+
+  @Nested
+  public class ParallelScan {
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface First { }
+
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Second { }
+
+    @First @Second static class A { }
+    @Second static class B { }
+    @First static class C { }
+
+    @Test
+    public void actionsAreCalledInADeterministicOrder() {
+      var events = new ArrayList<String>();
+      var scanner = new AnnotationScanner();
+      scanner.addAction(Second.class, type -> events.add("second " + type.getSimpleName()));
+      scanner.addAction(First.class, type -> events.add("first " + type.getSimpleName()));
+      scanner.scanClassPathPackageForAnnotations(ParallelScan.class);
+      assertEquals(List.of("second A", "first A", "second B", "first C"), events);
+    }
+
+    @Test
+    public void findAllClassNamesInAJar() throws IOException {
+      var jar = Files.createTempFile("annotation-scanner", ".jar");
+      try {
+        try(var output = new JarOutputStream(Files.newOutputStream(jar))) {
+          for(var name: List.of("com/", "com/foo/", "com/foo/B.class", "com/foo/A.class", "com/foo/bar/", "com/foo/bar/C.class", "com/foo/readme.txt")) {
+            output.putNextEntry(new JarEntry(name));
+            if (!name.endsWith("/")) {
+              output.write(new byte[] { 1, 2, 3 });
+            }
+            output.closeEntry();
+          }
+        }
+        try(var classLoader = new URLClassLoader(new URL[] { jar.toUri().toURL() }, null)) {
+          assertEquals(List.of("com.foo.A", "com.foo.B"), AnnotationScanner.findAllClassNames("com.foo", classLoader));
+        }
+      } finally {
+        Files.delete(jar);
+      }
+    }
+  }
+
+  @Nested
+  public class ClassFileScan {
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Marked { }
+
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    @Inherited
+    public @interface InheritedMarked { }
+
+    @Marked static class MarkedClass { }
+    static class UnmarkedClass { }
+
+    @InheritedMarked static class InheritedMarkedClass { }
+    static class SubClass extends InheritedMarkedClass { }
+
+    // a class loader that only sees the test classes and records the classes of the package it loads
+    private static final class RecordingClassLoader extends URLClassLoader {
+      private final Set<String> loaded = ConcurrentHashMap.newKeySet();
+
+      private RecordingClassLoader() {
+        super(new URL[] { ClassFileScan.class.getProtectionDomain().getCodeSource().getLocation() }, ClassLoader.getPlatformClassLoader());
+      }
+
+      @Override
+      protected Class<?> findClass(String name) throws ClassNotFoundException {
+        loaded.add(name);
+        return super.findClass(name);
+      }
+    }
+
+    @Test
+    public void onlyAnnotatedClassesAreLoaded() throws IOException {
+      try(var classLoader = new RecordingClassLoader()) {
+        var types = new ArrayList<String>();
+        var scanner = new AnnotationScanner();
+        scanner.addAction(Marked.class, type -> types.add(type.getName()));
+        scanner.scanClassPathPackageForAnnotations(ClassFileScan.class.getPackageName(), classLoader);
+        assertAll(
+            () -> assertEquals(List.of(MarkedClass.class.getName()), types),
+            () -> assertEquals(Set.of(MarkedClass.class.getName()), classLoader.loaded)
+        );
+      }
+    }
+
+    @Test
+    public void findAllClassInfos() {
+      var classInfos = AnnotationScanner.findAllClassInfos(ClassFileScan.class.getPackageName(), ClassFileScan.class.getClassLoader());
+      var classNames = classInfos.stream().map(AnnotationScanner.ClassInfo::className).toList();
+      assertAll(
+          () -> assertTrue(classInfos.contains(new AnnotationScanner.ClassInfo(MarkedClass.class.getName(), List.of(Marked.class.getName())))),
+          () -> assertTrue(classInfos.contains(new AnnotationScanner.ClassInfo(UnmarkedClass.class.getName(), List.of()))),
+          () -> assertEquals(classNames.stream().sorted().distinct().toList(), classNames)
+      );
+    }
+
+    @Test
+    public void inheritedAnnotations() {
+      var types = new ArrayList<Class<?>>();
+      var scanner = new AnnotationScanner();
+      scanner.addAction(InheritedMarked.class, types::add);
+      scanner.scanClassPathPackageForAnnotations(ClassFileScan.class);
+      assertEquals(List.of(InheritedMarkedClass.class, SubClass.class), types);
+    }
+  }
+
+  @Nested
+  public class Cache {
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Cached { }
+
+    @Cached static class CachedClass { }
+    static class NotCachedClass { }
+
+    @Test
+    public void scanWithACache() throws IOException {
+      var folder = Files.createTempDirectory("annotation-scanner");
+      var cacheFile = folder.resolve("scan.cache");
+      try {
+        var types = new ArrayList<Class<?>>();
+        var scanner = new AnnotationScanner();
+        scanner.setCacheFile(cacheFile);
+        scanner.addAction(Cached.class, types::add);
+        scanner.scanClassPathPackageForAnnotations(Cache.class);
+        var cacheText = Files.readString(cacheFile);
+
+        // change the cache to check that the class files are not read again
+        Files.writeString(cacheFile, cacheText.replace(
+            "class " + CachedClass.class.getName() + " ",
+            "class " + NotCachedClass.class.getName() + " " + Cached.class.getName() + "\nclass " + CachedClass.class.getName() + " "));
+        var types2 = new ArrayList<Class<?>>();
+        var scanner2 = new AnnotationScanner();
+        scanner2.setCacheFile(cacheFile);
+        scanner2.addAction(Cached.class, types2::add);
+        scanner2.scanClassPathPackageForAnnotations(Cache.class);
+
+        assertAll(
+            () -> assertEquals(List.of(CachedClass.class), types),
+            () -> assertTrue(cacheText.contains("class " + CachedClass.class.getName() + " " + Cached.class.getName())),
+            () -> assertFalse(cacheText.contains(NotCachedClass.class.getName())),
+            () -> assertEquals(List.of(CachedClass.class, NotCachedClass.class), types2)
+        );
+      } finally {
+        Files.deleteIfExists(cacheFile);
+        Files.delete(folder);
+      }
+    }
+
+    @Test
+    public void setCacheFilePrecondition() {
+      assertThrows(NullPointerException.class, () -> new AnnotationScanner().setCacheFile(null));
+    }
+  }
+}
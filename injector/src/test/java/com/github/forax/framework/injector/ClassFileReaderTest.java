@@ -0,0 +1,103 @@
+package com.github.forax.framework.injector;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SuppressWarnings("unused")
+public class ClassFileReaderTest {
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target(ElementType.TYPE)
+  public @interface Marker { }
+
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target(ElementType.TYPE)
+  public @interface Values {
+    int i() default 0;
+    long l() default 0;
+    double d() default 0;
+    String s() default "";
+    Class<?> c() default Object.class;
+    ElementType e() default ElementType.TYPE;
+    Marker a() default @Marker;
+    String[] array() default {};
+  }
+
+  @Retention(RetentionPolicy.CLASS)
+  @Target(ElementType.TYPE)
+  public @interface Invisible { }
+
+  static class NotAnnotated {
+    private static final long LONG = 123_456_789_012L;
+    private static final double DOUBLE = 3.14;
+    private int field;
+
+    void method() {
+      Runnable runnable = () -> System.out.println("été " + field + LONG + DOUBLE);
+      runnable.run();
+    }
+  }
+
+  @Marker
+  static class Annotated {
+    private int field;
+
+    @Deprecated
+    void method() {}
+  }
+
+  @Values(i = 1, l = 2L, d = 3.0, s = "four", c = String.class, e = ElementType.FIELD, a = @Marker, array = { "a", "b" })
+  @Invisible
+  @Marker
+  static class AnnotatedWithValues { }
+
+  private static ByteBuffer classFile(Class<?> type) throws IOException {
+    try(var input = type.getResourceAsStream(type.getName().substring(type.getPackageName().length() + 1) + ".class")) {
+      return ByteBuffer.wrap(input.readAllBytes());
+    }
+  }
+
+  @Test
+  public void readAnnotationNames() throws IOException {
+    assertAll(
+        () -> assertEquals(List.of(), ClassFileReader.readAnnotationNames(classFile(NotAnnotated.class))),
+        () -> assertEquals(List.of(Marker.class.getName()), ClassFileReader.readAnnotationNames(classFile(Annotated.class))),
+        () -> assertEquals(List.of(Values.class.getName(), Marker.class.getName()), ClassFileReader.readAnnotationNames(classFile(AnnotatedWithValues.class))),
+        () -> assertEquals(List.of(Retention.class.getName(), Target.class.getName()), ClassFileReader.readAnnotationNames(classFile(Marker.class)))
+    );
+  }
+
+  @Test
+  public void readAnnotationNamesFromAFile() throws IOException {
+    var path = Files.createTempFile("class-file-reader", ".class");
+    try {
+      var buffer = classFile(Annotated.class);
+      Files.write(path, buffer.array());
+      assertEquals(List.of(Marker.class.getName()), ClassFileReader.readAnnotationNames(path));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void readInvalidClassFiles() throws IOException {
+    var bytes = classFile(Annotated.class).array();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> ClassFileReader.readAnnotationNames(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }))),
+        () -> assertThrows(IllegalStateException.class, () -> ClassFileReader.readAnnotationNames(ByteBuffer.wrap(bytes, 0, bytes.length / 2))),
+        () -> assertThrows(IllegalStateException.class, () -> ClassFileReader.readAnnotationNames(ByteBuffer.allocate(0)))
+    );
+  }
+}
@@ -0,0 +1,149 @@
+package com.github.forax.framework.injector;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.ToolProvider;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ComponentIndexProcessorTest {
+  private Path folder;
+
+  @BeforeEach
+  public void createFolder() throws IOException {
+    folder = Files.createTempDirectory("component-index");
+  }
+
+  @AfterEach
+  public void deleteFolder() throws IOException {
+    try(var stream = Files.walk(folder)) {
+      for(var path: stream.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private static final Pattern TYPE_NAME = Pattern.compile("(?:class|@interface) (\\w+)");
+
+  private void compile(String... sources) throws IOException {
+    var sourceFolder = Files.createDirectories(folder.resolve("src/com/example"));
+    var output = Files.createDirectories(folder.resolve("classes"));
+    var files = new ArrayList<String>();
+    for(var source: sources) {
+      var matcher = TYPE_NAME.matcher(source);
+      if (!matcher.find()) {
+        throw new AssertionError("no type in " + source);
+      }
+      var className = matcher.group(1);
+      files.add(Files.writeString(sourceFolder.resolve(className + ".java"), "package com.example;\nimport " + Indexed.class.getName() + ";\nimport java.lang.annotation.*;\n" + source).toString());
+    }
+    var compiler = ToolProvider.getSystemJavaCompiler();
+    var arguments = new ArrayList<>(List.of(
+        "-processor", ComponentIndexProcessor.class.getName(),
+        "-classpath", System.getProperty("java.class.path"),
+        "-d", output.toString()));
+    arguments.addAll(files);
+    assertEquals(0, compiler.run(null, null, null, arguments.toArray(String[]::new)));
+  }
+
+  private static final String[] SOURCES = {
+      "@Indexed @Retention(RetentionPolicy.RUNTIME) public @interface Component { }",
+      "@Indexed @Retention(RetentionPolicy.RUNTIME) public @interface Repository { }",
+      "@Retention(RetentionPolicy.RUNTIME) public @interface NotIndexed { }",
+      "@Component public class Service { }",
+      "@Component @Repository public class Dao { public static class Inner { } }",
+      "@NotIndexed public class Other { }",
+      "public class Plain { }"
+  };
+
+  @Test
+  public void indexIsWritten() throws IOException {
+    compile(SOURCES);
+    var index = Files.readString(folder.resolve("classes").resolve(ComponentIndex.INDEX_NAME));
+    assertEquals("""
+        com.example.Component=com.example.Dao,com.example.Service
+        com.example.Repository=com.example.Dao
+        """, index);
+  }
+
+  @Test
+  public void scanWithAnIndex() throws IOException, ClassNotFoundException {
+    compile(SOURCES);
+    // add a non annotated class to the index to check that the index is used instead of the class files
+    var indexPath = folder.resolve("classes").resolve(ComponentIndex.INDEX_NAME);
+    Files.writeString(indexPath, Files.readString(indexPath).replace("com.example.Service\n", "com.example.Plain,com.example.Service\n"));
+
+    try(var classLoader = new URLClassLoader(new URL[] { folder.resolve("classes").toUri().toURL() }, getClass().getClassLoader())) {
+      @SuppressWarnings("unchecked")
+      var component = (Class<? extends Annotation>) classLoader.loadClass("com.example.Component");
+      @SuppressWarnings("unchecked")
+      var notIndexed = (Class<? extends Annotation>) classLoader.loadClass("com.example.NotIndexed");
+
+      var indexedTypes = new ArrayList<String>();
+      var scanner = new AnnotationScanner();
+      scanner.addAction(component, type -> indexedTypes.add(type.getSimpleName()));
+      scanner.scanClassPathPackageForAnnotations("com.example", classLoader);
+
+      // an annotation without an index, the class files are read
+      var types = new ArrayList<String>();
+      var scanner2 = new AnnotationScanner();
+      scanner2.addAction(component, type -> types.add(type.getSimpleName()));
+      scanner2.addAction(notIndexed, type -> types.add(type.getSimpleName()));
+      scanner2.scanClassPathPackageForAnnotations("com.example", classLoader);
+
+      assertAll(
+          () -> assertEquals(List.of("Dao", "Plain", "Service"), indexedTypes),
+          () -> assertEquals(List.of("Dao", "Other", "Service"), types)
+      );
+    }
+  }
+
+  @Test
+  public void writeAndRead() throws IOException {
+    var classNamesMap = new TreeMap<String, SortedSet<String>>();
+    classNamesMap.put("a.A", new TreeSet<>(List.of("b.B", "a.C", "a.D$E")));
+    classNamesMap.put("a.F", new TreeSet<>(List.of("a.C")));
+    var writer = new StringWriter();
+    ComponentIndex.write(classNamesMap, writer);
+    var index = ComponentIndex.read(new BufferedReader(new StringReader(writer.toString())));
+    assertAll(
+        () -> assertEquals(List.of(new AnnotationScanner.ClassInfo("a.C", List.of("a.A", "a.F")), new AnnotationScanner.ClassInfo("a.D$E", List.of("a.A"))), index.classInfos("a")),
+        () -> assertEquals(List.of(new AnnotationScanner.ClassInfo("b.B", List.of("a.A"))), index.classInfos("b")),
+        () -> assertEquals(List.of(), index.classInfos("c"))
+    );
+  }
+
+  @Test
+  public void readInvalidIndex() {
+    assertThrows(IllegalStateException.class, () -> ComponentIndex.read(new BufferedReader(new StringReader("a.A"))));
+  }
+
+  @Test
+  public void root() throws IOException {
+    assertAll(
+        () -> assertEquals("file:/tmp/classes/", ComponentIndex.root(new URL("file:/tmp/classes/com/example/"), "com/example")),
+        () -> assertEquals("file:/tmp/classes/", ComponentIndex.root(new URL("file:/tmp/classes/com/example"), "com/example")),
+        () -> assertEquals("jar:file:/tmp/app.jar!/", ComponentIndex.root(new URL("jar:file:/tmp/app.jar!/" + ComponentIndex.INDEX_NAME), ComponentIndex.INDEX_NAME))
+    );
+  }
+}
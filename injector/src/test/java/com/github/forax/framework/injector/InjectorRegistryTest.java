@@ -6,15 +6,23 @@ import org.junit.jupiter.api.Test;
 
 import java.beans.PropertyDescriptor;
 import java.lang.annotation.Target;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import static java.lang.annotation.ElementType.CONSTRUCTOR;
 import static java.lang.annotation.ElementType.METHOD;
 import static java.util.stream.Collectors.toSet;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -24,7 +32,6 @@ import static org.junit.jupiter.api.Assertions.fail;
 
 @SuppressWarnings("unused")
 public class InjectorRegistryTest {
-  /*
   @Nested
   public class Q1 {
     @Test @Tag("Q1")
@@ -546,5 +553,425 @@ public class InjectorRegistryTest {
       assertThrows(NullPointerException.class, () -> registry.registerProviderClass(null));
     }
   }
-  */
-}
\ No newline at end of file
+
+  @Nested
+  public class Freeze {
+    interface Service {}
+    public static class ServiceImpl implements Service {
+      public ServiceImpl() {}
+    }
+
+    @Test
+    public void lookupAfterFreeze() {
+      var registry = new InjectorRegistry();
+      registry.registerInstance(String.class, "hello");
+      registry.registerProviderClass(Service.class, ServiceImpl.class);
+      registry.freeze();
+      assertAll(
+          () -> assertTrue(registry.isFrozen()),
+          () -> assertEquals("hello", registry.lookupInstance(String.class)),
+          () -> assertTrue(registry.lookupInstance(Service.class) instanceof ServiceImpl),
+          () -> assertThrows(IllegalStateException.class, () -> registry.lookupInstance(Integer.class))
+      );
+    }
+
+    @Test
+    public void registerAfterFreeze() {
+      var registry = new InjectorRegistry();
+      registry.freeze();
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> registry.registerInstance(String.class, "hello")),
+          () -> assertThrows(IllegalStateException.class, () -> registry.registerProvider(String.class, () -> "hello")),
+          () -> assertThrows(IllegalStateException.class, () -> registry.registerProviderClass(ServiceImpl.class)),
+          () -> assertThrows(IllegalStateException.class, registry::freeze)
+      );
+    }
+
+    @Test
+    public void notFrozenByDefault() {
+      assertFalse(new InjectorRegistry().isFrozen());
+    }
+
+    @Test
+    public void concurrentLookups() throws InterruptedException {
+      var registry = new InjectorRegistry();
+      registry.registerInstance(String.class, "hello");
+      registry.freeze();
+      var errors = new AtomicInteger();
+      var threads = IntStream.range(0, 8)
+          .mapToObj(i -> Thread.ofPlatform().start(() -> {
+            for(var j = 0; j < 10_000; j++) {
+              if (!"hello".equals(registry.lookupInstance(String.class))) {
+                errors.incrementAndGet();
+              }
+            }
+          }))
+          .toList();
+      for(var thread: threads) {
+        thread.join();
+      }
+      assertEquals(0, errors.get());
+    }
+  }
+
+  @Nested
+  public class Singletons {
+    @Singleton
+    public static class Counted {
+      static final AtomicInteger COUNTER = new AtomicInteger();
+
+      public Counted() {
+        COUNTER.incrementAndGet();
+      }
+    }
+
+    @Singleton
+    public static class Slow {
+      static final AtomicInteger COUNTER = new AtomicInteger();
+
+      public Slow() throws InterruptedException {
+        COUNTER.incrementAndGet();
+        Thread.sleep(50);
+      }
+    }
+
+    @Singleton
+    public static class WithDependency {
+      private final Counted counted;
+
+      @Inject
+      public WithDependency(Counted counted) {
+        this.counted = counted;
+      }
+    }
+
+    public static class Prototype {
+      public Prototype() {}
+    }
+
+    @Test
+    public void sameInstance() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Counted.class);
+      var before = Counted.COUNTER.get();
+      var instance1 = registry.lookupInstance(Counted.class);
+      var instance2 = registry.lookupInstance(Counted.class);
+      assertAll(
+          () -> assertSame(instance1, instance2),
+          () -> assertEquals(before + 1, Counted.COUNTER.get())
+      );
+    }
+
+    @Test
+    public void notSingleton() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Prototype.class);
+      assertNotSame(registry.lookupInstance(Prototype.class), registry.lookupInstance(Prototype.class));
+    }
+
+    @Test
+    public void singletonDependency() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Counted.class);
+      registry.registerProviderClass(WithDependency.class);
+      var withDependency = registry.lookupInstance(WithDependency.class);
+      assertAll(
+          () -> assertSame(withDependency, registry.lookupInstance(WithDependency.class)),
+          () -> assertSame(registry.lookupInstance(Counted.class), withDependency.counted)
+      );
+    }
+
+    @Test
+    public void createdOnceUnderContention() throws InterruptedException {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Slow.class);
+      registry.freeze();
+      var before = Slow.COUNTER.get();
+      var instances = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>()));
+      var threads = IntStream.range(0, 8)
+          .mapToObj(i -> Thread.ofPlatform().start(() -> instances.add(registry.lookupInstance(Slow.class))))
+          .toList();
+      for(var thread: threads) {
+        thread.join();
+      }
+      assertAll(
+          () -> assertEquals(1, instances.size()),
+          () -> assertEquals(before + 1, Slow.COUNTER.get())
+      );
+    }
+  }
+
+  @Nested
+  public class CompiledProviders {
+    public record Name(String value) {}
+    public static class Counter {
+      public Counter() {}
+    }
+
+    public static class Bean {
+      private final Counter counter;
+      private final int size;
+      private Name name;
+
+      @Inject
+      public Bean(Counter counter, int size) {
+        this.counter = counter;
+        this.size = size;
+      }
+
+      @Inject
+      public void setName(Name name) {
+        this.name = name;
+      }
+    }
+
+    public static class Failing {
+      public Failing() {
+        throw new UnsupportedOperationException("oops");
+      }
+    }
+
+    @Test
+    public void constructorAndSetters() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Bean.class);
+      registry.registerProviderClass(Counter.class);
+      registry.registerProvider(int.class, () -> 42);
+      registry.registerInstance(Name.class, new Name("bob"));
+      var bean1 = registry.lookupInstance(Bean.class);
+      var bean2 = registry.lookupInstance(Bean.class);
+      assertAll(
+          () -> assertEquals(42, bean1.size),
+          () -> assertEquals(new Name("bob"), bean1.name),
+          () -> assertNotSame(bean1, bean2),
+          () -> assertNotSame(bean1.counter, bean2.counter)
+      );
+    }
+
+    @Test
+    public void missingDependencyIsReportedAtEachLookup() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Bean.class);
+      assertThrows(IllegalStateException.class, () -> registry.lookupInstance(Bean.class));
+      registry.registerProviderClass(Counter.class);
+      registry.registerProvider(int.class, () -> 3);
+      registry.registerInstance(Name.class, new Name("ana"));
+      assertEquals(new Name("ana"), registry.lookupInstance(Bean.class).name);
+    }
+
+    @Test
+    public void constructorException() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Failing.class);
+      var e = assertThrows(UnsupportedOperationException.class, () -> registry.lookupInstance(Failing.class));
+      assertEquals("oops", e.getMessage());
+    }
+  }
+
+  @Nested
+  public class Validation {
+    public static class Leaf {
+      public Leaf() {}
+    }
+
+    @Singleton
+    public static class Middle {
+      static final AtomicInteger COUNTER = new AtomicInteger();
+
+      @Inject
+      public Middle(Leaf leaf) {
+        COUNTER.incrementAndGet();
+      }
+    }
+
+    public static class Root {
+      private Middle middle;
+
+      public Root() {}
+
+      @Inject
+      public void setMiddle(Middle middle) {
+        this.middle = middle;
+      }
+    }
+
+    public static class CycleA {
+      @Inject
+      public CycleA(CycleB b) {}
+    }
+
+    public static class CycleB {
+      public CycleB() {}
+
+      @Inject
+      public void setA(CycleA a) {}
+    }
+
+    @Test
+    public void topologicalOrder() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Root.class);
+      registry.registerProviderClass(Middle.class);
+      registry.registerProviderClass(Leaf.class);
+      registry.registerInstance(String.class, "hello");
+      assertEquals(List.of(Leaf.class, Middle.class, Root.class, String.class), registry.topologicalOrder());
+    }
+
+    @Test
+    public void missingBindings() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Root.class);
+      registry.registerProviderClass(CycleA.class);
+      var e = assertThrows(IllegalStateException.class, registry::validate);
+      assertAll(
+          () -> assertTrue(e.getMessage().contains(Middle.class.getName() + " required by " + Root.class.getName())),
+          () -> assertTrue(e.getMessage().contains(CycleB.class.getName() + " required by " + CycleA.class.getName()))
+      );
+    }
+
+    @Test
+    public void cycle() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(CycleA.class);
+      registry.registerProviderClass(CycleB.class);
+      var e = assertThrows(IllegalStateException.class, registry::validate);
+      assertTrue(e.getMessage().contains(CycleA.class.getName() + " -> " + CycleB.class.getName() + " -> " + CycleA.class.getName()));
+    }
+
+    @Test
+    public void startCreatesTheSingletonsEagerly() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Root.class);
+      registry.registerProviderClass(Middle.class);
+      registry.registerProviderClass(Leaf.class);
+      var before = Middle.COUNTER.get();
+      registry.start();
+      assertAll(
+          () -> assertTrue(registry.isFrozen()),
+          () -> assertEquals(before + 1, Middle.COUNTER.get()),
+          () -> assertSame(registry.lookupInstance(Middle.class), registry.lookupInstance(Root.class).middle),
+          () -> assertEquals(before + 1, Middle.COUNTER.get())
+      );
+    }
+
+    @Test
+    public void startAnInvalidRegistry() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Root.class);
+      assertThrows(IllegalStateException.class, registry::start);
+      assertFalse(registry.isFrozen());
+    }
+
+    @Test
+    public void startAFrozenRegistry() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Leaf.class);
+      registry.freeze();
+      registry.start();
+      assertNotNull(registry.lookupInstance(Leaf.class));
+    }
+  }
+
+  @Nested
+  public class ParallelStart {
+    static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+
+    @Singleton
+    public static class Cache1 {
+      public Cache1() throws Exception {
+        BARRIER.await(5, TimeUnit.SECONDS);  // only returns if the two caches are created concurrently
+      }
+    }
+
+    @Singleton
+    public static class Cache2 {
+      public Cache2() throws Exception {
+        BARRIER.await(5, TimeUnit.SECONDS);
+      }
+    }
+
+    @Singleton
+    public static class Service {
+      private final Cache1 cache1;
+      private final Cache2 cache2;
+
+      @Inject
+      public Service(Cache1 cache1, Cache2 cache2) {
+        this.cache1 = cache1;
+        this.cache2 = cache2;
+      }
+    }
+
+    @Singleton
+    public static class Broken1 {
+      public Broken1() {
+        throw new UnsupportedOperationException("broken1");
+      }
+    }
+
+    @Singleton
+    public static class Broken2 {
+      public Broken2() {
+        throw new UnsupportedOperationException("broken2");
+      }
+    }
+
+    @Singleton
+    public static class DependsOnBroken {
+      static final AtomicInteger COUNTER = new AtomicInteger();
+
+      @Inject
+      public DependsOnBroken(Broken1 broken1) {
+        COUNTER.incrementAndGet();
+      }
+    }
+
+    @Test
+    public void dependencyLevels() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Service.class);
+      registry.registerProviderClass(Cache1.class);
+      registry.registerProviderClass(Cache2.class);
+      registry.registerInstance(String.class, "hello");
+      assertEquals(List.of(List.of(Cache1.class, Cache2.class, String.class), List.of(Service.class)), registry.dependencyLevels());
+    }
+
+    @Test
+    public void independentSingletonsAreCreatedConcurrently() {
+      BARRIER.reset();
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Service.class);
+      registry.registerProviderClass(Cache1.class);
+      registry.registerProviderClass(Cache2.class);
+      registry.startInParallel();
+      var service = registry.lookupInstance(Service.class);
+      assertAll(
+          () -> assertTrue(registry.isFrozen()),
+          () -> assertSame(registry.lookupInstance(Cache1.class), service.cache1),
+          () -> assertSame(registry.lookupInstance(Cache2.class), service.cache2)
+      );
+    }
+
+    @Test
+    public void failuresAreReportedTogether() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Broken1.class);
+      registry.registerProviderClass(Broken2.class);
+      registry.registerProviderClass(DependsOnBroken.class);
+      var before = DependsOnBroken.COUNTER.get();
+      var e = assertThrows(IllegalStateException.class, registry::startInParallel);
+      var messages = Arrays.stream(e.getSuppressed()).map(Throwable::getMessage).collect(toSet());
+      assertAll(
+          () -> assertEquals(Set.of("broken1", "broken2"), messages),
+          () -> assertEquals(before, DependsOnBroken.COUNTER.get())
+      );
+    }
+
+    @Test
+    public void invalidRegistry() {
+      var registry = new InjectorRegistry();
+      registry.registerProviderClass(Service.class);
+      assertThrows(IllegalStateException.class, registry::startInParallel);
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package com.github.forax.framework.injector;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+
+/**
+ * Compares the time to scan a jar of 20k+ entries by reading its central directory ({@link JarScanner})
+ * and by walking the zip file system ({@link AnnotationScanner#findAllClassInfosInFolder(URL, String)}).
+ *
+ * <p>Not a micro benchmark (no JMH in the project) and not a test, the times depend on the machine,
+ * run it by hand with the test classpath.
+ */
+public class JarScannerBenchmark {
+  public static void main(String[] args) throws IOException {
+    var entryCount = 20_000;
+    var iterations = 20;
+    var jar = Files.createTempFile("jar-scanner", ".jar");
+    try {
+      JarScannerTest.writeJar(jar, entryCount);
+      var packageName = JarScannerTest.class.getPackageName();
+      var url = new URL("jar:" + jar.toUri() + "!/" + JarScannerTest.PACKAGE_FOLDER);
+      long centralDirectoryTime = 0;
+      long zipFileSystemTime = 0;
+      for(var i = 0; i < 2 * iterations; i++) {  // the first half is the warmup
+        var start = System.nanoTime();
+        JarScanner.findAllClassInfos(jar, packageName);
+        var middle = System.nanoTime();
+        AnnotationScanner.findAllClassInfosInFolder(url, packageName);
+        var end = System.nanoTime();
+        if (i >= iterations) {
+          centralDirectoryTime += middle - start;
+          zipFileSystemTime += end - middle;
+        }
+      }
+      System.out.printf("jar of %d entries, central directory %d us, zip file system %d us%n",
+          entryCount + 6, centralDirectoryTime / iterations / 1_000, zipFileSystemTime / iterations / 1_000);
+    } finally {
+      Files.delete(jar);
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package com.github.forax.framework.injector;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JarScannerTest {
+  static final String PACKAGE_FOLDER = JarScannerTest.class.getPackageName().replace('.', '/') + '/';
+
+  private Path jar;
+
+  @BeforeEach
+  public void createJar() throws IOException {
+    jar = Files.createTempFile("jar-scanner", ".jar");
+  }
+
+  @AfterEach
+  public void deleteJar() throws IOException {
+    Files.delete(jar);
+  }
+
+  private static byte[] classFile(Class<?> type) throws IOException {
+    try(var input = type.getResourceAsStream(type.getName().substring(type.getPackageName().length() + 1) + ".class")) {
+      return input.readAllBytes();
+    }
+  }
+
+  private static void add(JarOutputStream output, String name, byte[] content, boolean stored) throws IOException {
+    var entry = new JarEntry(name);
+    if (stored) {
+      var crc = new CRC32();
+      crc.update(content);
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(content.length);
+      entry.setCompressedSize(content.length);
+      entry.setCrc(crc.getValue());
+    }
+    output.putNextEntry(entry);
+    output.write(content);
+    output.closeEntry();
+  }
+
+  static void writeJar(Path jar, int otherEntryCount) throws IOException {
+    try(var output = new JarOutputStream(Files.newOutputStream(jar))) {
+      add(output, PACKAGE_FOLDER, new byte[0], false);
+      add(output, PACKAGE_FOLDER + "ClassFileReaderTest$Annotated.class", classFile(ClassFileReaderTest.Annotated.class), false);
+      add(output, PACKAGE_FOLDER + "ClassFileReaderTest$AnnotatedWithValues.class", classFile(ClassFileReaderTest.AnnotatedWithValues.class), true);
+      add(output, PACKAGE_FOLDER + "ClassFileReaderTest$NotAnnotated.class", classFile(ClassFileReaderTest.NotAnnotated.class), false);
+      add(output, PACKAGE_FOLDER + "readme.txt", "not a class".getBytes(), false);
+      add(output, PACKAGE_FOLDER + "sub/Sub.class", "not a class".getBytes(), false);
+      for(var i = 0; i < otherEntryCount; i++) {
+        add(output, "com/other/Class" + i + ".class", "not a class".getBytes(), i % 2 == 0);
+      }
+    }
+  }
+
+  static final List<AnnotationScanner.ClassInfo> EXPECTED = List.of(
+      new AnnotationScanner.ClassInfo(ClassFileReaderTest.Annotated.class.getName(), List.of(ClassFileReaderTest.Marker.class.getName())),
+      new AnnotationScanner.ClassInfo(ClassFileReaderTest.AnnotatedWithValues.class.getName(), List.of(ClassFileReaderTest.Values.class.getName(), ClassFileReaderTest.Marker.class.getName())),
+      new AnnotationScanner.ClassInfo(ClassFileReaderTest.NotAnnotated.class.getName(), List.of()));
+
+  @Test
+  public void findAllClassInfos() throws IOException {
+    writeJar(jar, 10);
+    assertAll(
+        () -> assertEquals(EXPECTED, JarScanner.findAllClassInfos(jar, JarScannerTest.class.getPackageName())),
+        () -> assertEquals(List.of(), JarScanner.findAllClassInfos(jar, "com.unknown"))
+    );
+  }
+
+  @Test
+  public void findAllClassInfosInABigJar() throws IOException {
+    writeJar(jar, 20_000);
+    assertEquals(EXPECTED, JarScanner.findAllClassInfos(jar, JarScannerTest.class.getPackageName()));
+  }
+
+  @Test
+  public void scanAJar() throws IOException {
+    writeJar(jar, 10);
+    try(var classLoader = new URLClassLoader(new URL[] { jar.toUri().toURL() }, null)) {
+      assertEquals(EXPECTED, AnnotationScanner.findAllClassInfos(JarScannerTest.class.getPackageName(), classLoader));
+    }
+  }
+
+  @Test
+  public void invalidJar() throws IOException {
+    Files.writeString(jar, "this is not a jar");
+    assertThrows(IllegalStateException.class, () -> JarScanner.findAllClassInfos(jar, "com.example"));
+  }
+
+  @Test
+  public void jarPath() {
+    assertAll(
+        () -> assertEquals(Path.of("/tmp/app.jar"), JarScanner.jarPath(URI.create("jar:file:/tmp/app.jar!/com/example"))),
+        () -> assertNull(JarScanner.jarPath(URI.create("file:/tmp/classes/com/example"))),
+        () -> assertNull(JarScanner.jarPath(URI.create("jar:nested:/tmp/app.jar!/lib/dep.jar!/com/example")))
+    );
+  }
+
+  @Test
+  public void sameClassInfosAsTheZipFileSystem() throws IOException {
+    writeJar(jar, 20_000);
+    var packageName = JarScannerTest.class.getPackageName();
+    var url = new URL("jar:" + jar.toUri() + "!/" + PACKAGE_FOLDER);
+    assertEquals(Set.copyOf(JarScanner.findAllClassInfos(jar, packageName)),
+        Set.copyOf(AnnotationScanner.findAllClassInfosInFolder(url, packageName)));
+  }
+}
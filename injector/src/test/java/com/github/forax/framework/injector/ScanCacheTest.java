@@ -0,0 +1,108 @@
+package com.github.forax.framework.injector;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ScanCacheTest {
+  private Path folder;
+
+  @BeforeEach
+  public void createFolder() throws IOException {
+    folder = Files.createTempDirectory("scan-cache");
+  }
+
+  @AfterEach
+  public void deleteFolder() throws IOException {
+    try(var stream = Files.walk(folder)) {
+      for(var path: stream.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Test
+  public void saveAndLoad() throws IOException {
+    var url = folder.toUri().toURL();
+    var file = folder.resolve("cache/scan.cache");
+    var cache = ScanCache.load(file);
+    cache.put(url, "1234", List.of(
+        new AnnotationScanner.ClassInfo("a.A", List.of("a.Component", "a.Singleton")),
+        new AnnotationScanner.ClassInfo("a.B", List.of())));
+    cache.save();
+
+    var cache2 = ScanCache.load(file);
+    assertAll(
+        () -> assertEquals(List.of(new AnnotationScanner.ClassInfo("a.A", List.of("a.Component", "a.Singleton"))), cache2.get(url, "1234")),
+        () -> assertNull(cache2.get(url, "5678")),
+        () -> assertNull(cache2.get(folder.resolve("cache").toUri().toURL(), "1234"))
+    );
+  }
+
+  @Test
+  public void notModifiedIsNotSaved() {
+    var file = folder.resolve("scan.cache");
+    ScanCache.load(file).save();
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  public void invalidCacheIsEmpty() throws IOException {
+    var url = folder.toUri().toURL();
+    var file = Files.writeString(folder.resolve("scan.cache"), "folder " + url + " 1234\nthis is not a cache\n");
+    assertNull(ScanCache.load(file).get(url, "1234"));
+  }
+
+  @Test
+  public void fingerprintOfAFolder() throws IOException {
+    var url = folder.toUri().toURL();
+    var classFile = Files.writeString(folder.resolve("A.class"), "a");
+    Files.writeString(folder.resolve("text.txt"), "text");
+    var fingerprint = ScanCache.fingerprint(url);
+    Files.writeString(folder.resolve("text.txt"), "another text");
+    var sameFingerprint = ScanCache.fingerprint(url);
+    Files.writeString(classFile, "ab");
+    var modifiedFingerprint = ScanCache.fingerprint(url);
+    Files.writeString(folder.resolve("B.class"), "b");
+    var addedFingerprint = ScanCache.fingerprint(url);
+    assertAll(
+        () -> assertNotNull(fingerprint),
+        () -> assertEquals(fingerprint, sameFingerprint),
+        () -> assertNotEquals(fingerprint, modifiedFingerprint),
+        () -> assertNotEquals(modifiedFingerprint, addedFingerprint)
+    );
+  }
+
+  @Test
+  public void fingerprintOfAJar() throws IOException {
+    var jar = folder.resolve("app.jar");
+    try(var output = new JarOutputStream(Files.newOutputStream(jar))) {
+      output.putNextEntry(new JarEntry("com/foo/"));
+      output.closeEntry();
+    }
+    var url = new URL("jar:" + jar.toUri() + "!/com/foo");
+    var fingerprint = ScanCache.fingerprint(url);
+    Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 10_000));
+    assertAll(
+        () -> assertNotNull(fingerprint),
+        () -> assertNotEquals(fingerprint, ScanCache.fingerprint(url))
+    );
+  }
+}
@@ -0,0 +1,546 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable JSON document stored in a compact form.
+ *
+ * <p>The structure of the document is stored in a tape, an array of {@code long}, each entry being
+ * a tag (8 bits) and a payload (56 bits). An object or an array stores the index of the entry that
+ * follows it and its size, so the whole value can be skipped in one step. A member of an object is
+ * its key followed by its value. An int, a boolean or {@code null} is stored in one entry, while a
+ * long or a double uses a second entry for its 64 bits.
+ * The characters of all the strings are stored in one shared array, and a string entry stores an
+ * offset and a length in that array. Short strings that are repeated, such as keys, are only stored once.
+ *
+ * <p>A document can be navigated using {@link #root()} and the methods of {@link Value},
+ * or converted to beans or records with the collectors of a {@link JSONReader}
+ * using {@link Value#to(JSONReader, Class)}.
+ *
+ * @see #parse(String)
+ */
+public final class JSONDocument {
+  /**
+   * The kind of a JSON value.
+   */
+  public enum Kind {
+    OBJECT, ARRAY, STRING, INT, LONG, DOUBLE, TRUE, FALSE, NULL
+  }
+
+  private static final Kind[] KINDS = Kind.values();
+  private static final int TAG_SHIFT = 56;
+  private static final long PAYLOAD_MASK = (1L << TAG_SHIFT) - 1;
+  private static final int SIZE_SHIFT = 32;
+  private static final int MAX_SIZE = (1 << (TAG_SHIFT - SIZE_SHIFT)) - 1;
+  private static final long INT_MASK = 0xFFFF_FFFFL;
+
+  private final long[] tape;
+  private final char[] chars;
+
+  private JSONDocument(long[] tape, char[] chars) {
+    this.tape = tape;
+    this.chars = chars;
+  }
+
+  /**
+   * Parses a JSON text into a document.
+   * The size of an object or an array and the length of a string are limited to 16_777_215.
+   *
+   * @param text a JSON text.
+   * @return a new document.
+   */
+  public static JSONDocument parse(String text) {
+    Objects.requireNonNull(text);
+    var builder = new Builder();
+    ToyJSONParser.parse(text, builder);
+    return builder.toDocument();
+  }
+
+  /**
+   * Returns the root value of this document, an object or an array.
+   * @return the root value of this document.
+   */
+  public Value root() {
+    return new Value(0);
+  }
+
+  /**
+   * Returns the number of bytes used by the tape and the characters of this document.
+   * @return the number of bytes used by the tape and the characters of this document.
+   */
+  public long byteSize() {
+    return tape.length * (long) Long.BYTES + chars.length * (long) Character.BYTES;
+  }
+
+  private static long entry(Kind kind, long payload) {
+    return (long) kind.ordinal() << TAG_SHIFT | payload;
+  }
+
+  private Kind kind(int index) {
+    return KINDS[(int) (tape[index] >>> TAG_SHIFT)];
+  }
+
+  private int low(int index) {
+    return (int) (tape[index] & INT_MASK);
+  }
+
+  private int high(int index) {
+    return (int) ((tape[index] & PAYLOAD_MASK) >>> SIZE_SHIFT);
+  }
+
+  /**
+   * Returns the index of the entry that follows the value at index.
+   */
+  private int next(int index) {
+    return switch (kind(index)) {
+      case OBJECT, ARRAY -> low(index);
+      case LONG, DOUBLE -> index + 2;
+      default -> index + 1;
+    };
+  }
+
+  private String string(int index) {
+    return new String(chars, low(index), high(index));
+  }
+
+  private boolean stringEquals(int index, String string) {
+    var length = high(index);
+    if (length != string.length()) {
+      return false;
+    }
+    var offset = low(index);
+    for (var i = 0; i < length; i++) {
+      if (chars[offset + i] != string.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Calls the methods of the visitor for the value at index.
+   */
+  private int accept(int index, String key, JSONVisitor visitor) {
+    switch (kind(index)) {
+      case OBJECT -> {
+        visitor.startObject(key);
+        var end = low(index);
+        for (var i = index + 1; i < end; ) {
+          var memberKey = string(i);
+          if (visitor.acceptKey(memberKey)) {
+            i = accept(i + 1, memberKey, visitor);
+          } else {
+            i = next(i + 1);
+          }
+        }
+        visitor.endObject(key);
+        return end;
+      }
+      case ARRAY -> {
+        visitor.startArray(key);
+        var end = low(index);
+        for (int i = index + 1, element = 0; i < end; element++) {
+          if (visitor.acceptIndex(element)) {
+            i = accept(i, null, visitor);
+          } else {
+            i = next(i);
+          }
+        }
+        visitor.endArray(key);
+        return end;
+      }
+      case STRING -> visitor.value(key, string(index));
+      case INT -> visitor.intValue(key, low(index));
+      case LONG -> visitor.longValue(key, tape[index + 1]);
+      case DOUBLE -> visitor.doubleValue(key, Double.longBitsToDouble(tape[index + 1]));
+      case TRUE -> visitor.value(key, true);
+      case FALSE -> visitor.value(key, false);
+      case NULL -> visitor.value(key, null);
+    }
+    return next(index);
+  }
+
+  /**
+   * A value of a document, a view on an entry of the tape.
+   * Two values are equal if they are the same value of the same document.
+   */
+  public final class Value {
+    private final int index;
+
+    private Value(int index) {
+      this.index = index;
+    }
+
+    /**
+     * Returns the kind of this value.
+     * @return the kind of this value.
+     */
+    public Kind kind() {
+      return JSONDocument.this.kind(index);
+    }
+
+    private IllegalStateException error(String expected) {
+      return new IllegalStateException("expect " + expected + " but the value is " + kind());
+    }
+
+    private void checkContainer() {
+      var kind = kind();
+      if (kind != Kind.OBJECT && kind != Kind.ARRAY) {
+        throw error("an object or an array");
+      }
+    }
+
+    /**
+     * Returns the number of members of an object or the number of elements of an array.
+     * @return the number of members of an object or the number of elements of an array.
+     * @throws IllegalStateException if the value is not an object or an array.
+     */
+    public int size() {
+      checkContainer();
+      return high(index);
+    }
+
+    /**
+     * Returns the element of an array at an index.
+     * @param elementIndex the index of the element.
+     * @return the element of an array at an index.
+     * @throws IllegalStateException if the value is not an array.
+     * @throws IndexOutOfBoundsException if the index is not a valid index.
+     */
+    public Value get(int elementIndex) {
+      if (kind() != Kind.ARRAY) {
+        throw error("an array");
+      }
+      Objects.checkIndex(elementIndex, high(index));
+      var i = index + 1;
+      for (var j = 0; j < elementIndex; j++) {
+        i = next(i);
+      }
+      return new Value(i);
+    }
+
+    /**
+     * Returns the value of a key of an object or {@code null} if the key does not exist.
+     * The keys are compared without creating any string.
+     *
+     * @param key the key of the value.
+     * @return the value of a key of an object or {@code null} if the key does not exist.
+     * @throws IllegalStateException if the value is not an object.
+     */
+    public Value get(String key) {
+      Objects.requireNonNull(key);
+      if (kind() != Kind.OBJECT) {
+        throw error("an object");
+      }
+      var end = low(index);
+      for (var i = index + 1; i < end; i = next(i + 1)) {
+        if (stringEquals(i, key)) {
+          return new Value(i + 1);
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Returns the elements of an array.
+     * @return an unmodifiable list of the elements of an array.
+     * @throws IllegalStateException if the value is not an array.
+     */
+    public List<Value> elements() {
+      if (kind() != Kind.ARRAY) {
+        throw error("an array");
+      }
+      var elements = new ArrayList<Value>(high(index));
+      var end = low(index);
+      for (var i = index + 1; i < end; i = next(i)) {
+        elements.add(new Value(i));
+      }
+      return List.copyOf(elements);
+    }
+
+    /**
+     * Calls the consumer with the key and the value of each member of an object in the order of the document.
+     * @param consumer the consumer called with each key and each value.
+     * @throws IllegalStateException if the value is not an object.
+     */
+    public void forEach(BiConsumer<? super String, ? super Value> consumer) {
+      Objects.requireNonNull(consumer);
+      if (kind() != Kind.OBJECT) {
+        throw error("an object");
+      }
+      var end = low(index);
+      for (var i = index + 1; i < end; i = next(i + 1)) {
+        consumer.accept(string(i), new Value(i + 1));
+      }
+    }
+
+    /**
+     * Returns the value of a string.
+     * @return the value of a string.
+     * @throws IllegalStateException if the value is not a string.
+     */
+    public String stringValue() {
+      if (kind() != Kind.STRING) {
+        throw error("a string");
+      }
+      return string(index);
+    }
+
+    /**
+     * Returns the value of an integer that fits in an int.
+     * @return the value of an integer that fits in an int.
+     * @throws IllegalStateException if the value is not an integer that fits in an int.
+     */
+    public int intValue() {
+      if (kind() != Kind.INT) {
+        throw error("an int");
+      }
+      return low(index);
+    }
+
+    /**
+     * Returns the value of an integer.
+     * @return the value of an integer.
+     * @throws IllegalStateException if the value is not an integer.
+     */
+    public long longValue() {
+      return switch (kind()) {
+        case INT -> low(index);
+        case LONG -> tape[index + 1];
+        default -> throw error("an integer");
+      };
+    }
+
+    /**
+     * Returns the value of a number.
+     * @return the value of a number.
+     * @throws IllegalStateException if the value is not a number.
+     */
+    public double doubleValue() {
+      return switch (kind()) {
+        case INT -> low(index);
+        case LONG -> tape[index + 1];
+        case DOUBLE -> Double.longBitsToDouble(tape[index + 1]);
+        default -> throw error("a number");
+      };
+    }
+
+    /**
+     * Returns the value of a boolean.
+     * @return the value of a boolean.
+     * @throws IllegalStateException if the value is not a boolean.
+     */
+    public boolean booleanValue() {
+      return switch (kind()) {
+        case TRUE -> true;
+        case FALSE -> false;
+        default -> throw error("a boolean");
+      };
+    }
+
+    /**
+     * Returns true if the value is {@code null}.
+     * @return true if the value is {@code null}.
+     */
+    public boolean isNull() {
+      return kind() == Kind.NULL;
+    }
+
+    /**
+     * Creates an object from an object or an array using the collectors of a reader,
+     * like {@link JSONReader#parseJSON(String, Class)} but without parsing a text.
+     *
+     * @param reader the reader that defines the collectors.
+     * @param expectedClass the class of the resulting object.
+     * @return a new object created from this value.
+     * @param <T> the type of the resulting object.
+     */
+    public <T> T to(JSONReader reader, Class<T> expectedClass) {
+      Objects.requireNonNull(expectedClass);
+      return expectedClass.cast(to(reader, (Type) expectedClass));
+    }
+
+    /**
+     * Creates an object from an object or an array using the collectors of a reader,
+     * like {@link JSONReader#parseJSON(String, Type)} but without parsing a text.
+     *
+     * @param reader the reader that defines the collectors.
+     * @param expectedType the type of the resulting object.
+     * @return a new object created from this value.
+     */
+    public Object to(JSONReader reader, Type expectedType) {
+      Objects.requireNonNull(reader);
+      Objects.requireNonNull(expectedType);
+      checkContainer();
+      var visitor = reader.new CollectorVisitor(expectedType);
+      accept(index, null, visitor);
+      return visitor.result();
+    }
+
+    private JSONDocument document() {
+      return JSONDocument.this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Value value && index == value.index && document() == value.document();
+    }
+
+    @Override
+    public int hashCode() {
+      return index;
+    }
+
+    @Override
+    public String toString() {
+      return "Value[" + kind() + " at " + index + "]";
+    }
+  }
+
+  /**
+   * A visitor that appends the entries to the tape and the characters of the strings.
+   */
+  private static final class Builder implements JSONVisitor {
+    private long[] tape = new long[16];
+    private int tapeSize;
+    private char[] chars = new char[64];
+    private int charsSize;
+    private final HashMap<String, Long> strings = new HashMap<>();  // entries of the short strings
+    private int[] starts = new int[8];  // indexes of the objects and arrays being built
+    private int[] sizes = new int[8];
+    private int depth;
+
+    private void add(long entry) {
+      if (tapeSize == tape.length) {
+        tape = Arrays.copyOf(tape, tapeSize << 1);
+      }
+      tape[tapeSize++] = entry;
+    }
+
+    private void addString(String string) {
+      var length = string.length();
+      if (length > MAX_SIZE) {
+        throw new IllegalStateException("string too long " + length);
+      }
+      if (length <= StringCache.MAX_LENGTH) {
+        var entry = strings.get(string);
+        if (entry != null) {
+          add(entry);
+          return;
+        }
+      }
+      if (charsSize + length > chars.length) {
+        chars = Arrays.copyOf(chars, Math.max(chars.length << 1, charsSize + length));
+      }
+      string.getChars(0, length, chars, charsSize);
+      var entry = entry(Kind.STRING, (long) length << SIZE_SHIFT | charsSize);
+      charsSize += length;
+      if (length <= StringCache.MAX_LENGTH) {
+        strings.put(string, entry);
+      }
+      add(entry);
+    }
+
+    /**
+     * Appends the key of a member and counts the value in the enclosing object or array.
+     */
+    private void member(String key) {
+      if (depth == 0) {
+        return;
+      }
+      if (key != null) {
+        addString(key);
+      }
+      if (++sizes[depth - 1] > MAX_SIZE) {
+        throw new IllegalStateException("too many values " + sizes[depth - 1]);
+      }
+    }
+
+    @Override
+    public void value(String key, Object value) {
+      member(key);
+      if (value == null) {
+        add(entry(Kind.NULL, 0));
+        return;
+      }
+      if (value instanceof Boolean b) {
+        add(entry(b ? Kind.TRUE : Kind.FALSE, 0));
+        return;
+      }
+      if (value instanceof String s) {
+        addString(s);
+        return;
+      }
+      throw new AssertionError("unknown value " + value);
+    }
+
+    @Override
+    public void intValue(String key, int value) {
+      member(key);
+      add(entry(Kind.INT, value & INT_MASK));
+    }
+
+    @Override
+    public void longValue(String key, long value) {
+      member(key);
+      add(entry(Kind.LONG, 0));
+      add(value);
+    }
+
+    @Override
+    public void doubleValue(String key, double value) {
+      member(key);
+      add(entry(Kind.DOUBLE, 0));
+      add(Double.doubleToRawLongBits(value));
+    }
+
+    private void start(String key, Kind kind) {
+      member(key);
+      if (depth == starts.length) {
+        starts = Arrays.copyOf(starts, depth << 1);
+        sizes = Arrays.copyOf(sizes, depth << 1);
+      }
+      starts[depth] = tapeSize;
+      sizes[depth] = 0;
+      depth++;
+      add(entry(kind, 0));
+    }
+
+    private void end(Kind kind) {
+      depth--;
+      tape[starts[depth]] = entry(kind, (long) sizes[depth] << SIZE_SHIFT | tapeSize);
+    }
+
+    @Override
+    public void startObject(String key) {
+      start(key, Kind.OBJECT);
+    }
+
+    @Override
+    public void endObject(String key) {
+      end(Kind.OBJECT);
+    }
+
+    @Override
+    public void startArray(String key) {
+      start(key, Kind.ARRAY);
+    }
+
+    @Override
+    public void endArray(String key) {
+      end(Kind.ARRAY);
+    }
+
+    private JSONDocument toDocument() {
+      return new JSONDocument(Arrays.copyOf(tape, tapeSize), Arrays.copyOf(chars, charsSize));
+    }
+  }
+}
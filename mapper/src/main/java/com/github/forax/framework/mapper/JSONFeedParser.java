@@ -0,0 +1,395 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
+import com.github.forax.framework.mapper.ToyJSONParser.Kind;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static com.github.forax.framework.mapper.ToyJSONParser.Kind.*;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * A push JSON parser, the JSON text encoded in UTF-8 is sent chunk by chunk
+ * using {@link #feed(ByteBuffer)} and the methods of the visitor are called as soon as
+ * a token is complete, so the parser never waits for more input.
+ * The state of a partial token (a string, a number or a UTF-8 sequence split between two chunks)
+ * is kept between two calls.
+ *
+ * <pre>
+ *   var parser = new JSONFeedParser(visitor);
+ *   while (channel.read(buffer) != -1) {
+ *     parser.feed(buffer.flip());
+ *     buffer.clear();
+ *   }
+ *   parser.endOfInput();
+ * </pre>
+ *
+ * <p>The parser recognizes the same JSON texts as {@link ToyJSONParser#parse(String, JSONVisitor)}
+ * and calls the visitor the same way.
+ * This class is not thread safe.
+ *
+ * @see JSONReader#newFeedParser(Class)
+ */
+public final class JSONFeedParser {
+  private enum State {
+    ROOT, FIRST_KEY, KEY, COLON, VALUE, FIRST_ELEMENT, ELEMENT, AFTER_VALUE, DONE
+  }
+
+  private enum LexState {
+    NONE, STRING, STRING_ESCAPE, NUMBER, LITERAL
+  }
+
+  /**
+   * An object or an array being parsed.
+   */
+  private static final class Frame {
+    private final boolean object;
+    private final String key;  // the key of the object or the array in the enclosing object
+    private final boolean skipped;  // true if the visitor is not called for the content
+    private String currentKey;
+    private boolean skipValue;  // true if the value of the current key is skipped
+    private int index;  // the index of the next element if the frame is an array
+
+    private Frame(boolean object, String key, boolean skipped) {
+      this.object = object;
+      this.key = key;
+      this.skipped = skipped;
+    }
+  }
+
+  private static final int MAX_SEQUENCE_LENGTH = 4;
+
+  private final JSONVisitor visitor;
+  private final StringCache stringCache;
+  private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPORT)
+      .onUnmappableCharacter(CodingErrorAction.REPORT);
+  private final ByteBuffer sequence = ByteBuffer.allocate(MAX_SEQUENCE_LENGTH);  // a partial UTF-8 sequence
+  private final CharBuffer chars = CharBuffer.allocate(1_024);
+  private final ArrayDeque<Frame> stack = new ArrayDeque<>();
+  private final StringBuilder token = new StringBuilder();
+  private State state = State.ROOT;
+  private LexState lexState = LexState.NONE;
+  private boolean escaped;  // true if the current string contains an escape sequence
+  private int location;
+  private int tokenLocation;
+  private boolean ended;
+
+  /**
+   * Creates a parser that calls the methods of a visitor.
+   *
+   * @param visitor the visitor to call when parsing the JSON text.
+   */
+  public JSONFeedParser(JSONVisitor visitor) {
+    this(visitor, null);
+  }
+
+  /**
+   * Creates a parser that calls the methods of a visitor,
+   * the keys and the string values are deduplicated using a string cache.
+   *
+   * @param visitor the visitor to call when parsing the JSON text.
+   * @param stringCache the cache used to deduplicate the strings or {@code null}.
+   */
+  public JSONFeedParser(JSONVisitor visitor, StringCache stringCache) {
+    this.visitor = Objects.requireNonNull(visitor);
+    this.stringCache = stringCache;
+  }
+
+  /**
+   * Parses the remaining bytes of a chunk of the JSON text, the position of the chunk is set to its limit.
+   *
+   * @param chunk a chunk of the JSON text encoded in UTF-8.
+   * @throws IllegalStateException if the JSON text is invalid or if {@link #endOfInput()} was already called.
+   */
+  public void feed(ByteBuffer chunk) {
+    Objects.requireNonNull(chunk);
+    if (ended) {
+      throw new IllegalStateException("end of input already reached");
+    }
+    // complete the UTF-8 sequence split between the previous chunk and this one
+    while (sequence.position() != 0 && chunk.hasRemaining()) {
+      sequence.put(chunk.get()).flip();
+      decode(sequence, false);
+      sequence.compact();
+    }
+    decode(chunk, false);
+    if (chunk.hasRemaining()) {  // the start of a UTF-8 sequence
+      sequence.put(chunk);
+    }
+  }
+
+  /**
+   * Indicates that there is no more chunk, the last token is parsed.
+   *
+   * @throws IllegalStateException if the JSON text is not complete.
+   */
+  public void endOfInput() {
+    if (ended) {
+      throw new IllegalStateException("end of input already reached");
+    }
+    ended = true;
+    decode(sequence.flip(), true);
+    if (sequence.hasRemaining()) {
+      throw new IllegalStateException("truncated UTF-8 sequence at " + location);
+    }
+    endToken();
+    if (lexState != LexState.NONE || state != State.DONE) {
+      throw new IllegalStateException("unexpected end of input at " + location);
+    }
+  }
+
+  private void decode(ByteBuffer buffer, boolean endOfInput) {
+    for(;;) {
+      var result = decoder.decode(buffer, chars, endOfInput);
+      if (result.isError()) {
+        try {
+          result.throwException();
+        } catch (CharacterCodingException e) {
+          throw new IllegalStateException("invalid UTF-8 sequence at " + location, e);
+        }
+      }
+      chars.flip();
+      while (chars.hasRemaining()) {
+        accept(chars.get());
+      }
+      chars.clear();
+      if (result.isUnderflow()) {
+        return;
+      }
+    }
+  }
+
+  private void accept(char c) {
+    switch (lexState) {
+      case STRING -> {
+        switch (c) {
+          case '"' -> {
+            lexState = LexState.NONE;
+            token(STRING, string());
+          }
+          case '\\' -> {
+            lexState = LexState.STRING_ESCAPE;
+            escaped = true;
+            token.append(c);
+          }
+          default -> token.append(c);
+        }
+      }
+      case STRING_ESCAPE -> {
+        lexState = LexState.STRING;
+        token.append(c);
+      }
+      case NUMBER, LITERAL -> {
+        if (isTokenPart(c)) {
+          token.append(c);
+        } else {
+          endToken();
+          start(c);
+        }
+      }
+      case NONE -> start(c);
+    }
+    location++;
+  }
+
+  private static boolean isTokenPart(char c) {
+    return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '.' || c == '-' || c == '+';
+  }
+
+  private void start(char c) {
+    tokenLocation = location;
+    switch (c) {
+      case '{' -> token(LEFT_CURLY, "{");
+      case '}' -> token(RIGHT_CURLY, "}");
+      case '[' -> token(LEFT_BRACKET, "[");
+      case ']' -> token(RIGHT_BRACKET, "]");
+      case ':' -> token(COLON, ":");
+      case ',' -> token(COMMA, ",");
+      case '"' -> {
+        lexState = LexState.STRING;
+        escaped = false;
+      }
+      case ' ', '\t', '\r', '\n' -> {}
+      default -> {
+        if (c == '-' || (c >= '0' && c <= '9')) {
+          lexState = LexState.NUMBER;
+        } else if (c >= 'a' && c <= 'z') {
+          lexState = LexState.LITERAL;
+        } else {
+          throw new IllegalStateException("invalid character '" + c + "' at " + location);
+        }
+        token.append(c);
+      }
+    }
+  }
+
+  /**
+   * Ends the current number or literal.
+   */
+  private void endToken() {
+    var lexState = this.lexState;
+    if (lexState != LexState.NUMBER && lexState != LexState.LITERAL) {
+      return;
+    }
+    this.lexState = LexState.NONE;
+    var text = token.toString();
+    token.setLength(0);
+    token(kind(lexState, text), text);
+  }
+
+  private Kind kind(LexState lexState, String text) {
+    if (lexState == LexState.LITERAL) {
+      return switch (text) {
+        case "null" -> NULL;
+        case "true" -> TRUE;
+        case "false" -> FALSE;
+        default -> throw new IllegalStateException("invalid literal " + text + " at " + tokenLocation);
+      };
+    }
+    for (var i = 0; i < text.length(); i++) {
+      switch (text.charAt(i)) {
+        case '.', 'e', 'E' -> {
+          return DOUBLE;
+        }
+        default -> {}
+      }
+    }
+    return INTEGER;
+  }
+
+  private String string() {
+    var text = token.toString();
+    token.setLength(0);
+    String string;
+    try {
+      string = escaped ? ToyJSONParser.decodeString(text, 0, text.length()) : text;
+    } catch (IllegalStateException e) {
+      throw new IllegalStateException("invalid string at " + tokenLocation, e);
+    }
+    return stringCache == null ? string : stringCache.get(string);
+  }
+
+  private IllegalStateException error(Kind kind, Kind... expectedKinds) {
+    return new IllegalStateException("expect " + Arrays.stream(expectedKinds).map(Kind::name).collect(joining(", ")) + " but recognized " + kind + " at " + tokenLocation);
+  }
+
+  private void token(Kind kind, String text) {
+    switch (state) {
+      case ROOT -> {
+        switch (kind) {
+          case LEFT_CURLY, LEFT_BRACKET -> value(null, false, kind, text);
+          default -> throw error(kind, LEFT_CURLY, LEFT_BRACKET);
+        }
+      }
+      case FIRST_KEY, KEY -> {
+        if (kind == RIGHT_CURLY && state == State.FIRST_KEY) {
+          end();
+          return;
+        }
+        if (kind != STRING) {
+          throw error(kind, STRING);
+        }
+        stack.peek().currentKey = text;
+        state = State.COLON;
+      }
+      case COLON -> {
+        if (kind != COLON) {
+          throw error(kind, COLON);
+        }
+        var frame = stack.peek();
+        frame.skipValue = !frame.skipped && !visitor.acceptKey(frame.currentKey);
+        state = State.VALUE;
+      }
+      case VALUE -> {
+        var frame = stack.peek();
+        value(frame.currentKey, frame.skipped || frame.skipValue, kind, text);
+      }
+      case FIRST_ELEMENT, ELEMENT -> {
+        if (kind == RIGHT_BRACKET && state == State.FIRST_ELEMENT) {
+          end();
+          return;
+        }
+        var frame = stack.peek();
+        var index = frame.index++;
+        value(null, frame.skipped || !visitor.acceptIndex(index), kind, text);
+      }
+      case AFTER_VALUE -> {
+        var frame = stack.peek();
+        if (kind == COMMA) {
+          state = frame.object ? State.KEY : State.ELEMENT;
+          return;
+        }
+        if (kind != (frame.object ? RIGHT_CURLY : RIGHT_BRACKET)) {
+          throw error(kind, COMMA, frame.object ? RIGHT_CURLY : RIGHT_BRACKET);
+        }
+        end();
+      }
+      case DONE -> throw new IllegalStateException("unexpected " + kind + " after the end of the JSON text at " + tokenLocation);
+    }
+  }
+
+  private void value(String key, boolean skipped, Kind kind, String text) {
+    switch (kind) {
+      case LEFT_CURLY -> {
+        if (!skipped) {
+          visitor.startObject(key);
+        }
+        stack.push(new Frame(true, key, skipped));
+        state = State.FIRST_KEY;
+        return;
+      }
+      case LEFT_BRACKET -> {
+        if (!skipped) {
+          visitor.startArray(key);
+        }
+        stack.push(new Frame(false, key, skipped));
+        state = State.FIRST_ELEMENT;
+        return;
+      }
+      case NULL, TRUE, FALSE, INTEGER, DOUBLE, STRING -> {
+        if (!skipped) {
+          scalar(key, kind, text);
+        }
+      }
+      default -> throw error(kind, NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_CURLY, LEFT_BRACKET);
+    }
+    state = State.AFTER_VALUE;
+  }
+
+  private void scalar(String key, Kind kind, String text) {
+    try {
+      switch (kind) {
+        case NULL -> visitor.value(key, null);
+        case TRUE -> visitor.value(key, true);
+        case FALSE -> visitor.value(key, false);
+        case INTEGER -> ToyJSONParser.parseInteger(key, text, visitor);
+        case DOUBLE -> visitor.doubleValue(key, Double.parseDouble(text));
+        case STRING -> visitor.value(key, text);
+        default -> throw new AssertionError();
+      }
+    } catch (NumberFormatException e) {
+      throw new IllegalStateException("invalid number " + text + " at " + tokenLocation, e);
+    }
+  }
+
+  private void end() {
+    var frame = stack.pop();
+    if (!frame.skipped) {
+      if (frame.object) {
+        visitor.endObject(frame.key);
+      } else {
+        visitor.endArray(frame.key);
+      }
+    }
+    state = stack.isEmpty() ? State.DONE : State.AFTER_VALUE;
+  }
+}
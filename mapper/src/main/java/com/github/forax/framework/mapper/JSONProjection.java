@@ -0,0 +1,336 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
+
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * A set of JSON Pointers (RFC 6901) compiled once, that parses a JSON text and only creates
+ * the values matching the pointers, all other values are skipped.
+ * A path segment {@code *} matches any key of an object or any index of an array,
+ * by example {@code /items/*}{@code /price} matches the price of all the items.
+ *
+ * <p>The objects and the arrays are created by the collectors of the {@link JSONReader} that created
+ * the projection, the other values are converted to the type of the pointer like the reader converts
+ * the values of the properties (an integer to any numeric type that can represent it, a string to
+ * an enum constant, etc).
+ * The members and the elements that can not match a pointer are skipped by the parser.
+ *
+ * @see JSONReader#compileProjection(Map)
+ */
+public final class JSONProjection {
+  private static final String WILDCARD = "*";
+
+  /**
+   * A state of the matching automaton, a node of the tree of the path segments of all the pointers.
+   */
+  private static final class Node {
+    private final HashMap<String, Node> children = new HashMap<>();
+    private Node wildcard;
+    private String pointer;  // non-null if a pointer ends at that node
+    private Type type;
+
+    private Node child(String segment) {
+      if (segment.equals(WILDCARD)) {
+        if (wildcard == null) {
+          wildcard = new Node();
+        }
+        return wildcard;
+      }
+      return children.computeIfAbsent(segment, __ -> new Node());
+    }
+
+    private boolean hasChildren() {
+      return !children.isEmpty() || wildcard != null;
+    }
+  }
+
+  private final JSONReader reader;
+  private final Node root = new Node();
+  private final List<String> pointers;
+
+  JSONProjection(JSONReader reader, Map<String, ? extends Type> pointerMap) {
+    this.reader = reader;
+    pointerMap.forEach((pointer, type) -> {
+      Objects.requireNonNull(pointer);
+      Objects.requireNonNull(type);
+      var node = root;
+      for (var segment : segments(pointer)) {
+        node = node.child(segment);
+      }
+      node.pointer = pointer;
+      node.type = type;
+    });
+    this.pointers = List.copyOf(pointerMap.keySet());
+  }
+
+  private static List<String> segments(String pointer) {
+    if (pointer.isEmpty()) {
+      return List.of();
+    }
+    if (!pointer.startsWith("/")) {
+      throw new IllegalArgumentException("invalid JSON pointer " + pointer);
+    }
+    return Arrays.stream(pointer.substring(1).split("/", -1))
+        .map(segment -> segment.replace("~1", "/").replace("~0", "~"))
+        .toList();
+  }
+
+  private static List<Node> next(List<Node> nodes, String key) {
+    var result = List.<Node>of();
+    for (var node : nodes) {
+      var child = node.children.get(key);
+      if (child != null) {
+        result = add(result, child);
+      }
+      if (node.wildcard != null) {
+        result = add(result, node.wildcard);
+      }
+    }
+    return result;
+  }
+
+  private static List<Node> nextIndex(List<Node> nodes, int index) {
+    var result = List.<Node>of();
+    for (var node : nodes) {
+      if (!node.children.isEmpty()) {
+        var child = node.children.get(String.valueOf(index));
+        if (child != null) {
+          result = add(result, child);
+        }
+      }
+      if (node.wildcard != null) {
+        result = add(result, node.wildcard);
+      }
+    }
+    return result;
+  }
+
+  private static List<Node> add(List<Node> nodes, Node node) {
+    if (nodes.isEmpty()) {
+      return List.of(node);
+    }
+    var list = new ArrayList<>(nodes);
+    list.add(node);
+    return list;
+  }
+
+  /**
+   * Returns the node of the pointer that matches the value or {@code null} if no pointer matches the value.
+   * @throws IllegalStateException if several pointers match the same value.
+   */
+  private static Node matchingNode(List<Node> nodes) {
+    Node matching = null;
+    for (var node : nodes) {
+      if (node.pointer != null) {
+        if (matching != null) {
+          throw overlap(nodes);
+        }
+        matching = node;
+      }
+    }
+    if (matching != null && (nodes.size() != 1 || matching.hasChildren())) {
+      throw overlap(nodes);
+    }
+    return matching;
+  }
+
+  private static IllegalStateException overlap(List<Node> nodes) {
+    return new IllegalStateException("overlapping pointers " + nodes.stream()
+        .filter(node -> node.pointer != null)
+        .map(node -> node.pointer)
+        .collect(joining(", ")));
+  }
+
+  /**
+   * Returns the pointers of this projection.
+   * @return the pointers of this projection.
+   */
+  public List<String> pointers() {
+    return pointers;
+  }
+
+  /**
+   * Parses a JSON text and returns for each pointer the list of the matching values in the order of the text.
+   * Pointers that do not match any value are associated to an empty list.
+   * A JSON object or a JSON array is created by the collector of the type of the pointer,
+   * other values are converted to the type of the pointer.
+   *
+   * @param text a JSON text.
+   * @return an unmodifiable map that associates each pointer to the list of the matching values.
+   * @throws IllegalStateException if a value can not be converted to the type of its pointer.
+   */
+  public Map<String, List<Object>> parse(String text) {
+    Objects.requireNonNull(text);
+    var results = new LinkedHashMap<String, List<Object>>();
+    for (var pointer : pointers) {
+      results.put(pointer, new ArrayList<>());
+    }
+    var visitor = new ProjectionVisitor(results);
+    reader.parse(text, visitor);
+    var map = new LinkedHashMap<String, List<Object>>();
+    results.forEach((pointer, values) -> map.put(pointer, List.copyOf(values)));
+    return Collections.unmodifiableMap(map);
+  }
+
+  private static final class Frame {
+    private final List<Node> nodes;
+    private List<Node> currentNodes = List.of();  // nodes of the current key or of the current element
+
+    private Frame(List<Node> nodes) {
+      this.nodes = nodes;
+    }
+  }
+
+  private final class ProjectionVisitor implements JSONVisitor {
+    private final Map<String, List<Object>> results;
+    private final ArrayDeque<Frame> stack = new ArrayDeque<>();
+    private JSONReader.CollectorVisitor collectorVisitor;  // non-null when creating a matching value
+    private Node collectorNode;
+
+    private ProjectionVisitor(Map<String, List<Object>> results) {
+      this.results = results;
+    }
+
+    // the nodes of the current value
+    private List<Node> nodes() {
+      var frame = stack.peek();
+      if (frame == null) {  // root value
+        return List.of(root);
+      }
+      return frame.currentNodes;
+    }
+
+    @Override
+    public boolean acceptKey(String key) {
+      if (collectorVisitor != null) {
+        return collectorVisitor.acceptKey(key);
+      }
+      var frame = stack.peek();
+      var nodes = next(frame.nodes, key);
+      frame.currentNodes = nodes;
+      return !nodes.isEmpty();
+    }
+
+    @Override
+    public boolean acceptIndex(int index) {
+      if (collectorVisitor != null) {
+        return collectorVisitor.acceptIndex(index);
+      }
+      var frame = stack.peek();
+      var nodes = nextIndex(frame.nodes, index);
+      frame.currentNodes = nodes;
+      return !nodes.isEmpty();
+    }
+
+    @Override
+    public void value(String key, Object value) {
+      if (collectorVisitor != null) {
+        collectorVisitor.value(key, value);
+        return;
+      }
+      var node = matchingNode(nodes());
+      if (node != null) {
+        results.get(node.pointer).add(JSONReader.convert(node.type, value, "pointer " + node.pointer));
+      }
+    }
+
+    @Override
+    public void intValue(String key, int value) {
+      if (collectorVisitor != null) {
+        collectorVisitor.intValue(key, value);
+        return;
+      }
+      value(key, value);
+    }
+
+    @Override
+    public void longValue(String key, long value) {
+      if (collectorVisitor != null) {
+        collectorVisitor.longValue(key, value);
+        return;
+      }
+      value(key, value);
+    }
+
+    @Override
+    public void doubleValue(String key, double value) {
+      if (collectorVisitor != null) {
+        collectorVisitor.doubleValue(key, value);
+        return;
+      }
+      value(key, value);
+    }
+
+    /**
+     * Returns true if the object or the array is created by a collector.
+     */
+    private boolean start(String key) {
+      if (collectorVisitor != null) {
+        return true;
+      }
+      var nodes = nodes();
+      var node = matchingNode(nodes);
+      if (node == null) {
+        stack.push(new Frame(nodes));
+        return false;
+      }
+      collectorVisitor = reader.new CollectorVisitor(node.type);
+      collectorNode = node;
+      return true;
+    }
+
+    private void end() {
+      if (collectorVisitor == null) {
+        stack.pop();
+        return;
+      }
+      if (collectorVisitor.isDone()) {
+        results.get(collectorNode.pointer).add(collectorVisitor.result());
+        collectorVisitor = null;
+        collectorNode = null;
+      }
+    }
+
+    @Override
+    public void startObject(String key) {
+      if (start(key)) {
+        collectorVisitor.startObject(key);
+      }
+    }
+
+    @Override
+    public void endObject(String key) {
+      if (collectorVisitor != null) {
+        collectorVisitor.endObject(key);
+      }
+      end();
+    }
+
+    @Override
+    public void startArray(String key) {
+      if (start(key)) {
+        collectorVisitor.startArray(key);
+      }
+    }
+
+    @Override
+    public void endArray(String key) {
+      if (collectorVisitor != null) {
+        collectorVisitor.endArray(key);
+      }
+      end();
+    }
+  }
+}
@@ -1,7 +1,1372 @@
 package com.github.forax.framework.mapper;
 
+import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.stream.Collectors.toUnmodifiableMap;
+
 public class JSONReader {
-  public Object parseJSON(String text, Class<?> beanClass) {
-    throw new UnsupportedOperationException("TODO");
+  /**
+   * An object being created by a collector.
+   *
+   * <p>If the keys are matched speculatively, the index of the key that follows the last matched key
+   * is used as a guess for the next key, so if the keys of the JSON object are in the declaration order
+   * of the properties, a key is matched with one string comparison instead of a hashed lookup.
+   */
+  private static final class BeanData {
+    private Collector<Object> collector;
+    private Object data;
+    private IndexedPopulater<Object> indexed;  // non-null if the keys are matched speculatively
+    private SealedPopulater sealed;  // non-null if the collector is a sealed collector
+    private boolean speculative;
+    private int next;  // index of the expected next key
+    private String lastKey;
+    private int lastIndex;
+
+    /**
+     * Initializes this object, the instances are reused by the visitor.
+     */
+    private void init(Collector<Object> collector, Object data, boolean speculative) {
+      this.collector = collector;
+      this.data = data;
+      this.indexed = speculative ? IndexedPopulater.of(collector.populater) : null;
+      this.sealed = collector.populater instanceof SealedPopulater sealedPopulater ? sealedPopulater : null;
+      this.speculative = speculative;
+      next = 0;
+      lastKey = null;
+    }
+
+    private void clear() {
+      collector = null;
+      data = null;
+      indexed = null;
+      sealed = null;
+      lastKey = null;
+    }
+
+    /**
+     * Returns the index of a key or -1 if the key is unknown,
+     * the same key can be asked several times in a row, by acceptKey() and by populate().
+     */
+    private int index(String key) {
+      if (key == lastKey) {
+        return lastIndex;
+      }
+      var index = indexed.keys().index(key, next);
+      if (index != -1) {
+        next = index + 1;
+      }
+      lastKey = key;
+      lastIndex = index;
+      return index;
+    }
+
+    private int checkedIndex(String key) {
+      var index = index(key);
+      if (index == -1) {
+        throw new IllegalStateException("unknown key " + key);
+      }
+      return index;
+    }
+
+    private Type qualify(String key) {
+      if (indexed == null) {
+        return collector.qualifier.apply(key);
+      }
+      var index = index(key);
+      return index == -1 ? null : indexed.type(index);
+    }
+
+    private void populate(String key, Object value) {
+      if (indexed != null) {
+        indexed.populateAt(data, checkedIndex(key), value);
+        return;
+      }
+      if (sealed != null) {
+        // the discriminator selects the collector of the concrete class
+        var concreteCollector = sealed.collector(key, value).raw();
+        init(concreteCollector, concreteCollector.supplier.get(), speculative);
+        return;
+      }
+      collector.populater.populate(data, key, value);
+    }
+
+    private void populateInt(String key, int value) {
+      if (indexed == null) {
+        collector.populater.populateInt(data, key, value);
+        return;
+      }
+      indexed.populateIntAt(data, checkedIndex(key), value);
+    }
+
+    private void populateLong(String key, long value) {
+      if (indexed == null) {
+        collector.populater.populateLong(data, key, value);
+        return;
+      }
+      indexed.populateLongAt(data, checkedIndex(key), value);
+    }
+
+    private void populateDouble(String key, double value) {
+      if (indexed == null) {
+        collector.populater.populateDouble(data, key, value);
+        return;
+      }
+      indexed.populateDoubleAt(data, checkedIndex(key), value);
+    }
+
+    private Object finish() {
+      return collector.finisher.apply(data);
+    }
+  }
+
+  /**
+   * The names of the keys of a bean or a record in declaration order and their index.
+   *
+   * @param names the names of the keys in declaration order.
+   * @param indexes the index of each key indexed by its name.
+   */
+  private record KeyTable(String[] names, Map<String, Integer> indexes) {
+    private static KeyTable of(String[] names) {
+      var indexes = new HashMap<String, Integer>();
+      for (var i = 0; i < names.length; i++) {
+        indexes.put(names[i], i);
+      }
+      return new KeyTable(names, Map.copyOf(indexes));
+    }
+
+    /**
+     * Returns the index of a key or -1 if the key is unknown.
+     */
+    private int index(String key) {
+      var index = indexes.get(key);
+      return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the index of a key or -1 if the key is unknown,
+     * the expected index is checked first.
+     */
+    private int index(String key, int expected) {
+      if (expected < names.length && names[expected].equals(key)) {
+        return expected;
+      }
+      return index(key);
+    }
+  }
+
+  /**
+   * A populater that stores the values by the index of their key in a {@link KeyTable},
+   * implemented by the bean and record collectors.
+   */
+  private interface IndexedPopulater<B> extends Collector.Populater<B> {
+    KeyTable keys();
+
+    Type type(int index);
+
+    void populateAt(B builder, int index, Object value);
+
+    void populateIntAt(B builder, int index, int value);
+
+    void populateLongAt(B builder, int index, long value);
+
+    void populateDoubleAt(B builder, int index, double value);
+
+    @SuppressWarnings("unchecked")
+    private static IndexedPopulater<Object> of(Collector.Populater<?> populater) {
+      return populater instanceof IndexedPopulater<?> indexed ? (IndexedPopulater<Object>) indexed : null;
+    }
+  }
+
+  /**
+   * Everything needed to create a record from the values of its components,
+   * computed once per record class.
+   *
+   * @param recordClass the class of the record.
+   * @param types the generic types of the components.
+   * @param keys the names of the components.
+   * @param defaults the default value of each component, {@code null} or the zero of a primitive type.
+   * @param classes the class of each component, boxed if it's a primitive type.
+   * @param constructor the canonical constructor spread to take an {@code Object[]} and returning an {@code Object}.
+   */
+  private record RecordInfo(Class<?> recordClass, Type[] types, KeyTable keys, Object[] defaults, Class<?>[] classes, MethodHandle constructor)
+      implements IndexedPopulater<Object[]> {
+    private int index(String key) {
+      var index = keys.index(key);
+      if (index == -1) {
+        throw new IllegalStateException("unknown key " + key + " for " + recordClass.getName());
+      }
+      return index;
+    }
+
+    @Override
+    public Type type(int index) {
+      return types[index];
+    }
+
+    @Override
+    public void populate(Object[] values, String key, Object value) {
+      populateAt(values, index(key), value);
+    }
+
+    // if the value is not an instance of the component type, it is converted,
+    // so the spread constructor never fails to unbox or to cast a value
+    @Override
+    public void populateAt(Object[] values, int index, Object value) {
+      values[index] = classes[index].isInstance(value) ? value : convert(types[index], value, "component " + keys.names()[index] + " of " + recordClass.getName());
+    }
+
+    @Override
+    public void populateIntAt(Object[] values, int index, int value) {
+      populateAt(values, index, value);
+    }
+
+    @Override
+    public void populateLongAt(Object[] values, int index, long value) {
+      populateAt(values, index, value);
+    }
+
+    @Override
+    public void populateDoubleAt(Object[] values, int index, double value) {
+      populateAt(values, index, value);
+    }
+
+    private Object newInstance(Object[] values) {
+      try {
+        return constructor.invokeExact(values);
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+    }
+  }
+
+  private static final ClassValue<RecordInfo> RECORD_INFO = new ClassValue<>() {
+    @Override
+    protected RecordInfo computeValue(Class<?> recordClass) {
+      var components = recordClass.getRecordComponents();
+      var types = Arrays.stream(components).map(RecordComponent::getGenericType).toArray(Type[]::new);
+      var keys = KeyTable.of(Arrays.stream(components).map(RecordComponent::getName).toArray(String[]::new));
+      var defaults = Arrays.stream(components).map(component -> Utils.defaultValue(component.getType())).toArray();
+      var classes = Arrays.stream(components).map(component -> methodType(component.getType()).wrap().returnType()).toArray(Class<?>[]::new);
+      var constructor = Utils.constructorHandle(Utils.canonicalConstructor(recordClass, components))
+          .asSpreader(Object[].class, components.length)
+          .asType(methodType(Object.class, Object[].class));
+      return new RecordInfo(recordClass, types, keys, defaults, classes, constructor);
+    }
+  };
+
+  private static final ClassValue<Map<String, Object>> ENUM_CONSTANTS = new ClassValue<>() {
+    @Override
+    protected Map<String, Object> computeValue(Class<?> enumClass) {
+      return Arrays.stream(enumClass.getEnumConstants())
+          .collect(toUnmodifiableMap(constant -> ((Enum<?>) constant).name(), constant -> constant));
+    }
+  };
+
+  /**
+   * Returns the enum constant named by a string value, other values are returned as is.
+   */
+  private static Object enumConstant(Class<?> enumClass, Object value) {
+    if (!(value instanceof String name)) {
+      return value;
+    }
+    var constant = ENUM_CONSTANTS.get(enumClass).get(name);
+    if (constant == null) {
+      throw new IllegalStateException("unknown constant " + name + " for " + enumClass.getName());
+    }
+    return constant;
+  }
+
+  /**
+   * Converts a scalar value of a JSON text (a string, a boolean, an int, a long, a double or null) to a type.
+   * An integer is converted to any numeric type that can represent it, a double to a float or a double,
+   * a string to an enum constant or to a char if it has only one character.
+   *
+   * @param type the type of the key.
+   * @param value the scalar value.
+   * @param name the name of the key, used in the error message.
+   * @return the converted value.
+   * @throws IllegalStateException if the value can not be converted to the type.
+   */
+  // package visibility for JSONProjection
+  static Object convert(Type type, Object value, String name) {
+    var clazz = Utils.erase(type);
+    var boxed = methodType(clazz).wrap().returnType();
+    if (value == null) {
+      if (!clazz.isPrimitive()) {
+        return null;
+      }
+    } else if (boxed.isInstance(value)) {
+      return value;
+    } else if (value instanceof Number number) {
+      var converted = convertNumber(boxed, number);
+      if (converted != null) {
+        return converted;
+      }
+    } else if (value instanceof String string) {
+      if (clazz.isEnum()) {
+        var constant = ENUM_CONSTANTS.get(clazz).get(string);
+        if (constant != null) {
+          return constant;
+        }
+      }
+      if (boxed == Character.class && string.length() == 1) {
+        return string.charAt(0);
+      }
+    }
+    throw new IllegalStateException("invalid value " + value + " for " + name + " of type " + type.getTypeName());
+  }
+
+  /**
+   * Returns the number converted to the boxed type or {@code null} if the number can not be represented.
+   */
+  private static Object convertNumber(Class<?> boxed, Number number) {
+    if (boxed == Double.class) {
+      return number.doubleValue();
+    }
+    if (boxed == Float.class) {
+      return number.floatValue();
+    }
+    if (number instanceof Double) {  // not an integer
+      return null;
+    }
+    var value = number.longValue();
+    if (boxed == Long.class) {
+      return value;
+    }
+    if (boxed == Integer.class && value == (int) value) {
+      return (int) value;
+    }
+    if (boxed == Short.class && value == (short) value) {
+      return (short) value;
+    }
+    if (boxed == Byte.class && value == (byte) value) {
+      return (byte) value;
+    }
+    return null;
+  }
+
+  /**
+   * The setter of a property as method handles.
+   *
+   * @param setter the setter typed {@code (Object, Object)void}.
+   * @param type the type of the property, boxed if it's a primitive type.
+   * @param intSetter the setter typed {@code (Object, int)void} or {@code null} if the property type can not store an int.
+   * @param longSetter the setter typed {@code (Object, long)void} or {@code null} if the property type can not store a long.
+   * @param doubleSetter the setter typed {@code (Object, double)void} or {@code null} if the property type can not store a double.
+   */
+  private record Setter(MethodHandle setter, Class<?> type, MethodHandle intSetter, MethodHandle longSetter, MethodHandle doubleSetter) {
+    private static Setter of(Method method) {
+      var mh = Utils.methodHandle(method);
+      var propertyType = method.getParameterTypes()[0];
+      return new Setter(
+          mh.asType(methodType(void.class, Object.class, Object.class)),
+          methodType(propertyType).wrap().returnType(),
+          asTypeOrNull(mh, methodType(void.class, Object.class, int.class)),
+          asTypeOrNull(mh, methodType(void.class, Object.class, long.class)),
+          asTypeOrNull(mh, methodType(void.class, Object.class, double.class)));
+    }
+
+    private static MethodHandle asTypeOrNull(MethodHandle mh, MethodType type) {
+      try {
+        return mh.asType(type);
+      } catch (WrongMethodTypeException e) {
+        return null;
+      }
+    }
+
+    private void set(Object bean, Object value) {
+      try {
+        setter.invokeExact(bean, value);
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+    }
+
+    private void setInt(Object bean, int value) {
+      try {
+        intSetter.invokeExact(bean, value);
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+    }
+
+    private void setLong(Object bean, long value) {
+      try {
+        longSetter.invokeExact(bean, value);
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+    }
+
+    private void setDouble(Object bean, double value) {
+      try {
+        doubleSetter.invokeExact(bean, value);
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+    }
+  }
+
+  /**
+   * Everything needed to create and populate a bean, computed once per bean class.
+   *
+   * @param beanClass the class of the bean.
+   * @param types the generic types of the writable properties.
+   * @param keys the names of the writable properties.
+   * @param setters the setters of the writable properties.
+   * @param getters the getters of the writable properties typed {@code (Object)Object} or {@code null} if a property is not readable.
+   * @param constructor the default constructor returning an {@code Object}.
+   */
+  private record BeanSetters(Class<?> beanClass, Type[] types, KeyTable keys, Setter[] setters, MethodHandle[] getters, MethodHandle constructor)
+      implements IndexedPopulater<Object> {
+    private int index(String key) {
+      var index = keys.index(key);
+      if (index == -1) {
+        throw new IllegalStateException("unknown key " + key + " for " + beanClass.getName());
+      }
+      return index;
+    }
+
+    @Override
+    public Type type(int index) {
+      return types[index];
+    }
+
+    @Override
+    public void populate(Object bean, String key, Object value) {
+      populateAt(bean, index(key), value);
+    }
+
+    @Override
+    public void populateInt(Object bean, String key, int value) {
+      populateIntAt(bean, index(key), value);
+    }
+
+    @Override
+    public void populateLong(Object bean, String key, long value) {
+      populateLongAt(bean, index(key), value);
+    }
+
+    @Override
+    public void populateDouble(Object bean, String key, double value) {
+      populateDoubleAt(bean, index(key), value);
+    }
+
+    // if the value is not an instance of the property type, it is converted
+    @Override
+    public void populateAt(Object bean, int index, Object value) {
+      var setter = setters[index];
+      setter.set(bean, setter.type.isInstance(value) ? value : convert(types[index], value, "key " + keys.names()[index] + " of " + beanClass.getName()));
+    }
+
+    @Override
+    public void populateIntAt(Object bean, int index, int value) {
+      var setter = setters[index];
+      if (setter.intSetter == null) {
+        populateAt(bean, index, (Object) value);
+        return;
+      }
+      setter.setInt(bean, value);
+    }
+
+    @Override
+    public void populateLongAt(Object bean, int index, long value) {
+      var setter = setters[index];
+      if (setter.longSetter == null) {
+        populateAt(bean, index, (Object) value);
+        return;
+      }
+      setter.setLong(bean, value);
+    }
+
+    @Override
+    public void populateDoubleAt(Object bean, int index, double value) {
+      var setter = setters[index];
+      if (setter.doubleSetter == null) {
+        populateAt(bean, index, (Object) value);
+        return;
+      }
+      setter.setDouble(bean, value);
+    }
+
+    /**
+     * Returns the current value of a property or {@code null} if the property is unknown or not readable.
+     */
+    private Object get(Object bean, String key) {
+      var index = keys.index(key);
+      if (index == -1) {
+        return null;
+      }
+      var getter = getters[index];
+      if (getter == null) {
+        return null;
+      }
+      try {
+        return getter.invokeExact(bean);
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+    }
+
+    private Object newInstance() {
+      try {
+        return constructor.invokeExact();
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+    }
+  }
+
+  /**
+   * Returns the index of the fields of a class in declaration order, the fields of the super classes first.
+   * {@link Class#getDeclaredFields()} returns the fields in declaration order with HotSpot,
+   * this is not guaranteed by the specification but the order is only used to guess the next key.
+   */
+  private static Map<String, Integer> fieldIndexes(Class<?> beanClass) {
+    var classes = new ArrayDeque<Class<?>>();
+    for (var type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+      classes.push(type);
+    }
+    var indexes = new HashMap<String, Integer>();
+    for (var type : classes) {
+      for (var field : type.getDeclaredFields()) {
+        indexes.putIfAbsent(field.getName(), indexes.size());
+      }
+    }
+    return indexes;
+  }
+
+  private static final ClassValue<BeanSetters> BEAN_SETTERS = new ClassValue<>() {
+    @Override
+    protected BeanSetters computeValue(Class<?> beanClass) {
+      // the properties in the declaration order of their fields, the properties without field come last by name
+      var fieldIndexes = fieldIndexes(beanClass);
+      var properties = Arrays.stream(Utils.beanInfo(beanClass).getPropertyDescriptors())
+          .filter(property -> property.getWriteMethod() != null)
+          .sorted(Comparator.comparingInt(property -> fieldIndexes.getOrDefault(property.getName(), Integer.MAX_VALUE)))
+          .toArray(PropertyDescriptor[]::new);
+      var types = Arrays.stream(properties).map(property -> property.getWriteMethod().getGenericParameterTypes()[0]).toArray(Type[]::new);
+      var keys = KeyTable.of(Arrays.stream(properties).map(PropertyDescriptor::getName).toArray(String[]::new));
+      var setters = Arrays.stream(properties).map(property -> Setter.of(property.getWriteMethod())).toArray(Setter[]::new);
+      var getters = Arrays.stream(properties)
+          .map(property -> property.getReadMethod() == null ? null : Utils.methodHandle(property.getReadMethod()).asType(methodType(Object.class, Object.class)))
+          .toArray(MethodHandle[]::new);
+      var constructor = Utils.constructorHandle(Utils.defaultConstructor(beanClass))
+          .asType(methodType(Object.class));
+      return new BeanSetters(beanClass, types, keys, setters, getters, constructor);
+    }
+  };
+
+  /**
+   * The populater of the list collectors.
+   *
+   * @param enumClass the class of the elements if it's an enum, {@code null} otherwise.
+   */
+  private record ListPopulater(Class<?> enumClass) implements Collector.Populater<List<Object>> {
+    @Override
+    public void populate(List<Object> list, String key, Object value) {
+      list.add(enumClass == null ? value : enumConstant(enumClass, value));
+    }
+  }
+
+  /**
+   * The populater of the sealed collectors, it is never called to store a value,
+   * the frame that contains the temporary object replaces the sealed collector by the collector of
+   * the concrete class when the discriminator is seen.
+   *
+   * @param discriminatorKey the key of the discriminator.
+   * @param collectors the collector of each concrete class indexed by its simple name.
+   */
+  private record SealedPopulater(String discriminatorKey, Map<String, Collector<?>> collectors) implements Collector.Populater<Object> {
+    private Collector<?> collector(String key, Object value) {
+      if (!discriminatorKey.equals(key)) {
+        throw new IllegalStateException("expect the discriminator " + discriminatorKey + " but was " + key);
+      }
+      var collector = value instanceof String name ? collectors.get(name) : null;
+      if (collector == null) {
+        throw new IllegalStateException("unknown discriminator " + value + " among " + collectors.keySet());
+      }
+      return collector;
+    }
+
+    @Override
+    public void populate(Object builder, String key, Object value) {
+      throw new IllegalStateException("the discriminator " + discriminatorKey + " must be the first key");
+    }
+  }
+
+  private static final ClassValue<Map<String, Collector<?>>> SEALED_COLLECTORS = new ClassValue<>() {
+    @Override
+    protected Map<String, Collector<?>> computeValue(Class<?> sealedType) {
+      var collectors = new HashMap<String, Collector<?>>();
+      Utils.permittedSubclassesBySimpleName(sealedType).forEach((name, subclass) ->
+          collectors.put(name, subclass.isRecord() ? Collector.record(subclass) : Collector.bean(subclass)));
+      return Map.copyOf(collectors);
+    }
+  };
+
+  /**
+   * A collector is defined by 4 functions,
+   * a qualifier that returns the type of the value of a key or {@code null} if the key is unknown,
+   * a supplier that creates a temporary object, a populater that stores a key/value into the temporary
+   * object and a finisher that transforms the temporary object to the resulting object.
+   */
+  public record Collector<B>(Function<? super String, ? extends Type> qualifier,
+                             Supplier<? extends B> supplier, Populater<B> populater, Function<? super B, ?> finisher) {
+    public interface Populater<B> {
+      void populate(B builder, String key, Object value);
+
+      /**
+       * Inserts an int value, by default the value is boxed and {@link #populate(Object, String, Object)} is called.
+       */
+      default void populateInt(B builder, String key, int value) {
+        populate(builder, key, value);
+      }
+
+      /**
+       * Inserts a long value, by default the value is boxed and {@link #populate(Object, String, Object)} is called.
+       */
+      default void populateLong(B builder, String key, long value) {
+        populate(builder, key, value);
+      }
+
+      /**
+       * Inserts a double value, by default the value is boxed and {@link #populate(Object, String, Object)} is called.
+       */
+      default void populateDouble(B builder, String key, double value) {
+        populate(builder, key, value);
+      }
+    }
+
+    public Collector {
+      Objects.requireNonNull(qualifier);
+      Objects.requireNonNull(supplier);
+      Objects.requireNonNull(populater);
+      Objects.requireNonNull(finisher);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collector<Object> raw() {
+      return (Collector<Object>) (Collector<?>) this;
+    }
+
+    /**
+     * Returns a collector that populates an existing object and returns it as is.
+     */
+    private Collector<B> inPlace() {
+      return new Collector<>(qualifier, supplier, populater, Function.identity());
+    }
+
+    /**
+     * Returns a collector able to create an instance of a bean and populate it.
+     * The setters are pre-computed once per bean class and int or long values
+     * are passed to the setters without being boxed.
+     *
+     * @param beanClass the class of the bean.
+     * @return a collector able to create an instance of a bean.
+     */
+    public static Collector<Object> bean(Class<?> beanClass) {
+      Objects.requireNonNull(beanClass);
+      var beanSetters = BEAN_SETTERS.get(beanClass);
+      var types = beanSetters.types;
+      return new Collector<>(
+          key -> {
+            var index = beanSetters.keys.index(key);
+            return index == -1 ? null : types[index];
+          },
+          beanSetters::newInstance,
+          beanSetters,
+          Function.identity());
+    }
+
+    public static Collector<List<Object>> list(Type elementType) {
+      Objects.requireNonNull(elementType);
+      var enumClass = elementType instanceof Class<?> clazz && clazz.isEnum() ? clazz : null;
+      return new Collector<>(key -> elementType, ArrayList::new, new ListPopulater(enumClass), List::copyOf);
+    }
+
+    private static final Populater<PrimitiveArrayBuilder> PRIMITIVE_POPULATER = new Populater<>() {
+      @Override
+      public void populate(PrimitiveArrayBuilder builder, String key, Object value) {
+        builder.add(value);
+      }
+
+      @Override
+      public void populateInt(PrimitiveArrayBuilder builder, String key, int value) {
+        builder.addInt(value);
+      }
+
+      @Override
+      public void populateLong(PrimitiveArrayBuilder builder, String key, long value) {
+        builder.addLong(value);
+      }
+
+      @Override
+      public void populateDouble(PrimitiveArrayBuilder builder, String key, double value) {
+        builder.addDouble(value);
+      }
+    };
+
+    /**
+     * Returns a collector that collects a JSON array of numbers into an array of primitive values
+     * ({@code int[]}, {@code long[]} or {@code double[]}) without boxing the values.
+     *
+     * @param componentType the component type of the array, {@code int.class}, {@code long.class} or {@code double.class}.
+     * @return a collector that collects a JSON array of numbers into an array of primitive values.
+     */
+    public static Collector<?> primitiveArray(Class<?> componentType) {
+      Objects.requireNonNull(componentType);
+      PrimitiveArrayBuilder.of(componentType);  // check the component type
+      return new Collector<>(key -> componentType, () -> PrimitiveArrayBuilder.of(componentType), PRIMITIVE_POPULATER, PrimitiveArrayBuilder::toArray);
+    }
+
+    /**
+     * Returns a collector that collects a JSON array of numbers into an unmodifiable list
+     * ({@code List<Integer>}, {@code List<Long>} or {@code List<Double>}) backed by an array of primitive values.
+     *
+     * @param componentType the primitive type of the values, {@code int.class}, {@code long.class} or {@code double.class}.
+     * @return a collector that collects a JSON array of numbers into an unmodifiable list.
+     */
+    public static Collector<?> primitiveList(Class<?> componentType) {
+      Objects.requireNonNull(componentType);
+      PrimitiveArrayBuilder.of(componentType);  // check the component type
+      return new Collector<>(key -> componentType, () -> PrimitiveArrayBuilder.of(componentType), PRIMITIVE_POPULATER, PrimitiveArrayBuilder::toList);
+    }
+
+    /**
+     * Returns a collector able to create an instance of a concrete class of a sealed hierarchy.
+     * The first key of the JSON object must be the discriminator, its value is the simple name of
+     * the concrete class, used to find the collector of the class (a record collector or a bean collector)
+     * in a table computed once from the permitted subclasses.
+     *
+     * @param sealedType a sealed interface or a sealed class.
+     * @param discriminatorKey the key of the discriminator.
+     * @return a collector able to create an instance of a concrete class of a sealed hierarchy.
+     * @throws IllegalArgumentException if the type is not sealed.
+     *
+     * @see JSONWriter#configureSealed(Class, String)
+     */
+    public static Collector<Object> sealed(Class<?> sealedType, String discriminatorKey) {
+      Objects.requireNonNull(sealedType);
+      Objects.requireNonNull(discriminatorKey);
+      var populater = new SealedPopulater(discriminatorKey, SEALED_COLLECTORS.get(sealedType));
+      return new Collector<>(
+          key -> {
+            if (!key.equals(discriminatorKey)) {
+              throw new IllegalStateException("the discriminator " + discriminatorKey + " must be the first key, not " + key);
+            }
+            return String.class;
+          },
+          () -> populater,
+          populater,
+          __ -> {
+            throw new IllegalStateException("no discriminator " + discriminatorKey);
+          });
+    }
+
+    /**
+     * Returns a collector able to create an instance of a record.
+     * The values are stored in an array indexed by the position of the record components
+     * and the record is created by calling the canonical constructor with the array.
+     *
+     * @param recordClass the class of the record.
+     * @return a collector able to create an instance of a record.
+     */
+    public static Collector<Object[]> record(Class<?> recordClass) {
+      Objects.requireNonNull(recordClass);
+      if (!recordClass.isRecord()) {
+        throw new IllegalArgumentException(recordClass.getName() + " is not a record");
+      }
+      var recordInfo = RECORD_INFO.get(recordClass);
+      var types = recordInfo.types;
+      var defaults = recordInfo.defaults;
+      return new Collector<>(
+          key -> {
+            var index = recordInfo.keys.index(key);
+            return index == -1 ? null : types[index];
+          },
+          defaults::clone,
+          recordInfo,
+          recordInfo::newInstance);
+    }
+  }
+
+  @FunctionalInterface
+  public interface TypeMatcher {
+    Optional<Collector<?>> match(Type type);
+  }
+
+  /**
+   * What to do when a key of a JSON object is unknown, i.e. when the qualifier of a collector
+   * returns {@code null}.
+   */
+  public enum UnknownKeyPolicy {
+    /**
+     * Reports an unknown key as an error.
+     */
+    STRICT,
+    /**
+     * Skips the value of an unknown key without creating any object.
+     */
+    LENIENT
+  }
+
+  private final ArrayList<TypeMatcher> typeMatchers = new ArrayList<>();
+  private UnknownKeyPolicy unknownKeyPolicy = UnknownKeyPolicy.STRICT;
+  private StringCache stringCache;
+  private boolean speculativeKeyMatching;
+
+  public void addTypeMatcher(TypeMatcher typeMatcher) {
+    Objects.requireNonNull(typeMatcher);
+    typeMatchers.add(typeMatcher);
+  }
+
+  /**
+   * Sets the policy used when a key of a JSON object is unknown, by default {@link UnknownKeyPolicy#STRICT}.
+   *
+   * @param unknownKeyPolicy the policy used when a key of a JSON object is unknown.
+   */
+  public void setUnknownKeyPolicy(UnknownKeyPolicy unknownKeyPolicy) {
+    Objects.requireNonNull(unknownKeyPolicy);
+    this.unknownKeyPolicy = unknownKeyPolicy;
+  }
+
+  /**
+   * Sets a cache used to deduplicate the keys and the string values of the JSON texts,
+   * by default the strings are not deduplicated.
+   * The same cache can be used by several readers.
+   *
+   * @param stringCache the cache used to deduplicate the strings.
+   */
+  public void setStringCache(StringCache stringCache) {
+    Objects.requireNonNull(stringCache);
+    this.stringCache = stringCache;
+  }
+
+  /**
+   * Enables or disables the speculative matching of the keys, disabled by default.
+   * When enabled, the bean and record collectors expect the keys of a JSON object to be in the order
+   * of the record components or of the fields of the bean properties (the properties without a field
+   * are expected last, sorted by name), so a key is checked against
+   * the expected key with one comparison and a hashed lookup is only done if the keys are not in that order.
+   *
+   * @param speculativeKeyMatching true to match the keys speculatively.
+   */
+  public void setSpeculativeKeyMatching(boolean speculativeKeyMatching) {
+    this.speculativeKeyMatching = speculativeKeyMatching;
+  }
+
+  /**
+   * Compiles a set of JSON Pointers, each one associated to the type of the values it matches,
+   * into a projection that only creates the matching values when parsing a JSON text.
+   *
+   * @param pointers a map that associates JSON pointers to the type of the values.
+   * @return a projection that creates the values matching the pointers.
+   *
+   * @see JSONProjection
+   */
+  public JSONProjection compileProjection(Map<String, ? extends Type> pointers) {
+    Objects.requireNonNull(pointers);
+    return new JSONProjection(this, pointers);
+  }
+
+  private static final Map<Class<?>, Class<?>> PRIMITIVE_LIST_ELEMENTS = Map.of(Integer.class, int.class, Long.class, long.class, Double.class, double.class);
+
+  private static Optional<Collector<?>> findPrimitiveCollector(Type type) {
+    if (type instanceof Class<?> clazz && clazz.isArray() && PRIMITIVE_LIST_ELEMENTS.containsValue(clazz.getComponentType())) {
+      return Optional.of(Collector.primitiveArray(clazz.getComponentType()));
+    }
+    if (type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() == List.class
+        && parameterizedType.getActualTypeArguments()[0] instanceof Class<?> elementClass && PRIMITIVE_LIST_ELEMENTS.containsKey(elementClass)) {
+      return Optional.of(Collector.primitiveList(PRIMITIVE_LIST_ELEMENTS.get(elementClass)));
+    }
+    return Optional.empty();
+  }
+
+  private Collector<?> findCollector(Type type) {
+    for (var typeMatcher : Utils.reverseList(typeMatchers)) {
+      var collector = typeMatcher.match(type);
+      if (collector.isPresent()) {
+        return collector.orElseThrow();
+      }
+    }
+    return findPrimitiveCollector(type).orElseGet(() -> Collector.bean(Utils.erase(type)));
+  }
+
+  public interface TypeReference<T> { }
+
+  private static Type findDeserializerType(TypeReference<?> typeReference) {
+    return Arrays.stream(typeReference.getClass().getGenericInterfaces())
+        .filter(type -> type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() == TypeReference.class)
+        .map(type -> ((ParameterizedType) type).getActualTypeArguments()[0])
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("invalid TypeReference " + typeReference.getClass().getName()));
+  }
+
+  public <T> T parseJSON(String text, TypeReference<T> typeReference) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(typeReference);
+    @SuppressWarnings("unchecked")
+    var result = (T) parseJSON(text, findDeserializerType(typeReference));
+    return result;
+  }
+
+  public <T> T parseJSON(String text, Class<T> expectedClass) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(expectedClass);
+    return expectedClass.cast(parseJSON(text, (Type) expectedClass));
+  }
+
+  public Object parseJSON(String text, Type expectedType) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(expectedType);
+    return parseWithAPooledContext(text, expectedType, null);
+  }
+
+  private Object parseWithAPooledContext(String text, Type expectedType, Object root) {
+    var context = acquireContext();
+    try {
+      return context.parse(text, expectedType, root);
+    } finally {
+      releaseContext(context);
+    }
+  }
+
+  /**
+   * A context stores the objects needed to parse a JSON text, a parser and the stack of the objects
+   * being created, so they are reused from one parsing to the next and parsing a small text
+   * only allocates the resulting objects.
+   * The configuration of the reader (the type matchers, the unknown key policy, etc.) is read
+   * each time a text is parsed.
+   *
+   * <p>A context is not thread safe and can not be used while it is already parsing a text,
+   * by example by a collector.
+   *
+   * @see #newContext()
+   */
+  public final class Context {
+    private final ToyJSONParser.Parser parser = new ToyJSONParser.Parser();
+    private final CollectorVisitor visitor = new CollectorVisitor(null);
+    private boolean inUse;
+
+    private Context() {}
+
+    /**
+     * Same as {@link JSONReader#parseJSON(String, TypeReference)} using this context.
+     */
+    public <T> T parseJSON(String text, TypeReference<T> typeReference) {
+      Objects.requireNonNull(text);
+      Objects.requireNonNull(typeReference);
+      @SuppressWarnings("unchecked")
+      var result = (T) parse(text, findDeserializerType(typeReference), null);
+      return result;
+    }
+
+    /**
+     * Same as {@link JSONReader#parseJSON(String, Class)} using this context.
+     */
+    public <T> T parseJSON(String text, Class<T> expectedClass) {
+      Objects.requireNonNull(text);
+      Objects.requireNonNull(expectedClass);
+      return expectedClass.cast(parse(text, expectedClass, null));
+    }
+
+    /**
+     * Same as {@link JSONReader#parseJSON(String, Type)} using this context.
+     */
+    public Object parseJSON(String text, Type expectedType) {
+      Objects.requireNonNull(text);
+      Objects.requireNonNull(expectedType);
+      return parse(text, expectedType, null);
+    }
+
+    private Object parse(String text, Type expectedType, Object root) {
+      if (inUse) {
+        throw new IllegalStateException("the context is already parsing a text");
+      }
+      inUse = true;
+      try {
+        visitor.reset(expectedType, root);
+        parser.parse(text, visitor, stringCache);
+        return visitor.result();
+      } finally {
+        visitor.clear();
+        inUse = false;
+      }
+    }
+  }
+
+  /**
+   * Creates a new context that can be reused to parse several JSON texts.
+   * The methods {@code parseJSON} of the reader already reuse the contexts stored in a small pool,
+   * this method is useful to associate a context to a thread.
+   *
+   * @return a new context.
+   */
+  public Context newContext() {
+    return new Context();
+  }
+
+  /**
+   * A push parser that creates a value from a JSON text encoded in UTF-8 sent chunk by chunk,
+   * by example by a non-blocking channel, using the collectors of the reader.
+   * A feed parser parses only one text and is not thread safe.
+   *
+   * @param <T> the type of the created value.
+   *
+   * @see #newFeedParser(Class)
+   * @see JSONFeedParser
+   */
+  public final class FeedParser<T> {
+    private final CollectorVisitor visitor;
+    private final JSONFeedParser parser;
+    private final Function<Object, ? extends T> cast;
+
+    private FeedParser(Type expectedType, Function<Object, ? extends T> cast) {
+      this.visitor = new CollectorVisitor(expectedType);
+      this.parser = new JSONFeedParser(visitor, stringCache);
+      this.cast = cast;
+    }
+
+    /**
+     * Parses the remaining bytes of a chunk of the JSON text, the position of the chunk is set to its limit.
+     *
+     * @param chunk a chunk of the JSON text encoded in UTF-8.
+     * @throws IllegalStateException if the JSON text is invalid or if {@link #endOfInput()} was already called.
+     *
+     * @see JSONFeedParser#feed(ByteBuffer)
+     */
+    public void feed(ByteBuffer chunk) {
+      parser.feed(chunk);
+    }
+
+    /**
+     * Indicates that there is no more chunk and returns the created value.
+     *
+     * @return the value created from the JSON text.
+     * @throws IllegalStateException if the JSON text is not complete or if this method was already called.
+     *
+     * @see JSONFeedParser#endOfInput()
+     */
+    public T endOfInput() {
+      parser.endOfInput();
+      return cast.apply(visitor.result());
+    }
+  }
+
+  /**
+   * Creates a push parser that creates an instance of a class from a JSON text sent chunk by chunk.
+   *
+   * @param expectedClass the class of the created value.
+   * @return a new feed parser.
+   */
+  public <T> FeedParser<T> newFeedParser(Class<T> expectedClass) {
+    Objects.requireNonNull(expectedClass);
+    return new FeedParser<>(expectedClass, expectedClass::cast);
+  }
+
+  /**
+   * Creates a push parser that creates a value of a generic type from a JSON text sent chunk by chunk.
+   *
+   * @param typeReference the type of the created value.
+   * @return a new feed parser.
+   */
+  public <T> FeedParser<T> newFeedParser(TypeReference<T> typeReference) {
+    Objects.requireNonNull(typeReference);
+    @SuppressWarnings("unchecked")
+    var cast = (Function<Object, T>) value -> (T) value;
+    return new FeedParser<>(findDeserializerType(typeReference), cast);
+  }
+
+  /**
+   * Creates a push parser that creates a value of a type from a JSON text sent chunk by chunk.
+   *
+   * @param expectedType the type of the created value.
+   * @return a new feed parser.
+   */
+  public FeedParser<Object> newFeedParser(Type expectedType) {
+    Objects.requireNonNull(expectedType);
+    return new FeedParser<>(expectedType, Function.identity());
+  }
+
+  private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+  private final AtomicReferenceArray<Context> contextPool = new AtomicReferenceArray<>(POOL_SIZE);
+
+  private Context acquireContext() {
+    var start = (int) (Thread.currentThread().threadId() % POOL_SIZE);
+    for (var i = 0; i < POOL_SIZE; i++) {
+      var context = contextPool.getAndSet((start + i) % POOL_SIZE, null);
+      if (context != null) {
+        return context;
+      }
+    }
+    return new Context();
+  }
+
+  private void releaseContext(Context context) {
+    var start = (int) (Thread.currentThread().threadId() % POOL_SIZE);
+    for (var i = 0; i < POOL_SIZE; i++) {
+      if (contextPool.compareAndSet((start + i) % POOL_SIZE, null, context)) {
+        return;
+      }
+    }
+    // the pool is full, the context is garbage collected
+  }
+
+  /**
+   * Parses a JSON object and populates an existing bean using the setters of the bean collector.
+   * The properties that are not present in the JSON object keep their values.
+   * If a property already contains a bean or a mutable list, that object is populated in place
+   * (the list being cleared first) instead of creating a new one.
+   *
+   * @param text a JSON object.
+   * @param bean the bean to populate.
+   * @return the bean taken as argument.
+   * @param <T> the type of the bean.
+   */
+  public <T> T parseInto(String text, T bean) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(bean);
+    parseWithAPooledContext(text, bean.getClass(), bean);
+    return bean;
+  }
+
+  /**
+   * Parses a JSON array of objects or arrays in parallel.
+   * The boundaries of the elements are first found by a structural scan that only matches
+   * the curly braces, the brackets, the commas and the strings, then each element is created
+   * by the collector of the element type in the fork/join common pool.
+   * The collectors and the type matchers must be thread safe.
+   *
+   * @param text a JSON array of objects or arrays.
+   * @param elementClass the class of the elements.
+   * @return an unmodifiable list of the elements in the order of the array.
+   * @param <T> the type of the elements.
+   */
+  public <T> List<T> parseJSONArrayInParallel(String text, Class<T> elementClass) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(elementClass);
+    return parseJSONArrayInParallel(text, (Type) elementClass).stream().map(elementClass::cast).toList();
+  }
+
+  /**
+   * Parses a JSON array of objects or arrays in parallel.
+   *
+   * @param text a JSON array of objects or arrays.
+   * @param elementType the type of the elements.
+   * @return an unmodifiable list of the elements in the order of the array.
+   *
+   * @see #parseJSONArrayInParallel(String, Class)
+   */
+  public List<?> parseJSONArrayInParallel(String text, Type elementType) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(elementType);
+    var boundaries = ToyJSONParser.arrayElements(text);
+    return IntStream.range(0, boundaries.length / 2)
+        .parallel()
+        .mapToObj(i -> parseJSON(text.substring(boundaries[2 * i], boundaries[2 * i + 1]), elementType))
+        .toList();
+  }
+
+  // package visibility for JSONProjection
+  void parse(String text, JSONVisitor visitor) {
+    ToyJSONParser.parse(text, visitor, stringCache);
+  }
+
+  /**
+   * A visitor that uses the collectors to create the value of a JSON object or a JSON array.
+   */
+  // package visibility for JSONProjection
+  final class CollectorVisitor implements JSONVisitor {
+    private final ArrayList<BeanData> frames = new ArrayList<>();  // reused, only the first depth frames are valid
+    private int depth;
+    private Type expectedType;
+    private boolean lenient;
+    private boolean speculative;
+    private Object root;  // non-null if an existing bean is populated
+    private Object result;
+    private boolean done;
+
+    CollectorVisitor(Type expectedType) {
+      reset(expectedType, null);
+    }
+
+    private void reset(Type expectedType, Object root) {
+      this.expectedType = expectedType;
+      this.root = root;
+      lenient = unknownKeyPolicy == UnknownKeyPolicy.LENIENT;
+      speculative = speculativeKeyMatching;
+      depth = 0;
+      result = null;
+      done = false;
+    }
+
+    /**
+     * Clears the references to the objects created or populated.
+     */
+    private void clear() {
+      for (var i = 0; i < depth; i++) {
+        frames.get(i).clear();
+      }
+      depth = 0;
+      root = null;
+      result = null;
+    }
+
+    private BeanData peek() {
+      return depth == 0 ? null : frames.get(depth - 1);
+    }
+
+    private void push(Collector<Object> collector, Object data) {
+      if (depth == frames.size()) {
+        frames.add(new BeanData());
+      }
+      frames.get(depth++).init(collector, data, speculative);
+    }
+
+    private Object pop() {
+      var beanData = frames.get(--depth);
+      var value = beanData.finish();
+      beanData.clear();
+      return value;
+    }
+
+    /**
+     * Returns true if the value is fully created.
+     */
+    boolean isDone() {
+      return done;
+    }
+
+    /**
+     * Returns the value created by the collectors.
+     */
+    Object result() {
+      return result;
+    }
+
+    @Override
+    public boolean acceptKey(String key) {
+      // in strict mode, unknown keys are reported by the populater or by start()
+      return !lenient || peek().qualify(key) != null;
+    }
+
+    @Override
+    public void value(String key, Object value) {
+      peek().populate(key, value);
+    }
+
+    @Override
+    public void intValue(String key, int value) {
+      peek().populateInt(key, value);
+    }
+
+    @Override
+    public void longValue(String key, long value) {
+      peek().populateLong(key, value);
+    }
+
+    @Override
+    public void doubleValue(String key, double value) {
+      peek().populateDouble(key, value);
+    }
+
+    private void start(String key) {
+      var beanData = peek();
+      if (beanData == null && root != null) {
+        push(Collector.bean(root.getClass()).inPlace(), root);
+        return;
+      }
+      var type = beanData == null ? expectedType : beanData.qualify(key);
+      if (type == null) {
+        throw new IllegalStateException("unknown key " + key);
+      }
+      var collector = findCollector(type).raw();
+      if (root != null && beanData.collector.populater instanceof BeanSetters beanSetters) {
+        var existing = beanSetters.get(beanData.data, key);
+        if (existing != null && reuse(collector, existing)) {
+          push(collector.inPlace(), existing);
+          return;
+        }
+      }
+      push(collector, collector.supplier.get());
+    }
+
+    /**
+     * Returns true if an existing value can be populated in place by a collector,
+     * a mutable list is cleared.
+     */
+    private static boolean reuse(Collector<?> collector, Object existing) {
+      if (collector.populater instanceof BeanSetters beanSetters) {
+        return beanSetters.beanClass.isInstance(existing);
+      }
+      if (collector.populater instanceof ListPopulater && existing instanceof List<?> list) {
+        try {
+          list.clear();
+          return true;
+        } catch (UnsupportedOperationException e) {
+          return false;
+        }
+      }
+      return false;
+    }
+
+    private void end(String key) {
+      var value = pop();
+      if (depth == 0) {
+        result = value;
+        done = true;
+      } else {
+        peek().populate(key, value);
+      }
+    }
+
+    @Override
+    public void startObject(String key) {
+      start(key);
+    }
+
+    @Override
+    public void endObject(String key) {
+      end(key);
+    }
+
+    @Override
+    public void startArray(String key) {
+      if (depth == 0 && root != null) {
+        throw new IllegalStateException("expected a JSON object to populate " + root.getClass().getName());
+      }
+      start(key);
+    }
+
+    @Override
+    public void endArray(String key) {
+      end(key);
+    }
   }
 }
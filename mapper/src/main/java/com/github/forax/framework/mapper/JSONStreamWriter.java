@@ -0,0 +1,142 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A visitor that writes the JSON text corresponding to the events it receives to an {@link Appendable},
+ * without storing the values, so the memory used only depends on the nesting depth.
+ * The text is formatted like the text generated by {@link JSONWriter}.
+ */
+final class JSONStreamWriter implements JSONVisitor {
+  private final Appendable out;
+  private boolean[] hasValue = new boolean[8];  // true if the object or the array at a depth already has a value
+  private int depth;
+
+  JSONStreamWriter(Appendable out) {
+    this.out = Objects.requireNonNull(out);
+  }
+
+  private void write(CharSequence text) {
+    try {
+      out.append(text);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void write(char c) {
+    try {
+      out.append(c);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void writeString(String string) {
+    write('"');
+    var start = 0;
+    var length = string.length();
+    for (var i = 0; i < length; i++) {
+      var c = string.charAt(i);
+      if (c == '"' || c == '\\' || c < ' ') {
+        write(string.subSequence(start, i));
+        write(switch (c) {
+          case '"' -> "\\\"";
+          case '\\' -> "\\\\";
+          case '\b' -> "\\b";
+          case '\f' -> "\\f";
+          case '\n' -> "\\n";
+          case '\r' -> "\\r";
+          case '\t' -> "\\t";
+          default -> String.format("\\u%04x", (int) c);
+        });
+        start = i + 1;
+      }
+    }
+    write(string.subSequence(start, length));
+    write('"');
+  }
+
+  /**
+   * Writes the separator and the key before a value.
+   */
+  private void prefix(String key) {
+    if (depth != 0) {
+      if (hasValue[depth - 1]) {
+        write(", ");
+      }
+      hasValue[depth - 1] = true;
+    }
+    if (key != null) {
+      writeString(key);
+      write(": ");
+    }
+  }
+
+  @Override
+  public void value(String key, Object value) {
+    prefix(key);
+    if (value instanceof String s) {
+      writeString(s);
+      return;
+    }
+    write(String.valueOf(value));
+  }
+
+  @Override
+  public void intValue(String key, int value) {
+    prefix(key);
+    write(Integer.toString(value));
+  }
+
+  @Override
+  public void longValue(String key, long value) {
+    prefix(key);
+    write(Long.toString(value));
+  }
+
+  @Override
+  public void doubleValue(String key, double value) {
+    prefix(key);
+    write(Double.toString(value));
+  }
+
+  private void start(String key, char c) {
+    prefix(key);
+    write(c);
+    if (depth == hasValue.length) {
+      hasValue = Arrays.copyOf(hasValue, depth << 1);
+    }
+    hasValue[depth++] = false;
+  }
+
+  private void end(char c) {
+    depth--;
+    write(c);
+  }
+
+  @Override
+  public void startObject(String key) {
+    start(key, '{');
+  }
+
+  @Override
+  public void endObject(String key) {
+    end('}');
+  }
+
+  @Override
+  public void startArray(String key) {
+    start(key, '[');
+  }
+
+  @Override
+  public void endArray(String key) {
+    end(']');
+  }
+}
@@ -0,0 +1,302 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A transformation of a JSON text into another JSON text defined as a pipeline of stages,
+ * the events of the parser go through the stages and are written as they arrive,
+ * so the values are never created and the memory used does not depend on the size of the text.
+ *
+ * <p>A transform is immutable, each method that adds a stage returns a new transform.
+ * <pre>
+ *   var transform = JSONTransform.identity()
+ *       .drop("password")
+ *       .rename("id", "userId")
+ *       .filterValues((key, value) -> value != null);
+ *   var text = transform.transform(json);
+ * </pre>
+ */
+public final class JSONTransform {
+  private static final JSONTransform IDENTITY = new JSONTransform(List.of());
+
+  private final List<UnaryOperator<JSONVisitor>> stages;
+
+  private JSONTransform(List<UnaryOperator<JSONVisitor>> stages) {
+    this.stages = stages;
+  }
+
+  /**
+   * Returns a transform that writes the JSON text as is.
+   * @return a transform that writes the JSON text as is.
+   */
+  public static JSONTransform identity() {
+    return IDENTITY;
+  }
+
+  private JSONTransform with(UnaryOperator<JSONVisitor> stage) {
+    var stages = new ArrayList<>(this.stages);
+    stages.add(stage);
+    return new JSONTransform(List.copyOf(stages));
+  }
+
+  /**
+   * Returns a new transform that removes the members of the objects with one of the keys, at any depth.
+   * The values of the removed members are skipped by the parser without being parsed.
+   *
+   * @param keys the keys of the members to remove.
+   * @return a new transform.
+   */
+  public JSONTransform drop(String... keys) {
+    var keySet = Set.of(keys);
+    return with(next -> new ForwardingVisitor(next) {
+      @Override
+      public boolean acceptKey(String key) {
+        return !keySet.contains(key) && next.acceptKey(key);
+      }
+    });
+  }
+
+  /**
+   * Returns a new transform that only keeps the members of the root object with one of the keys.
+   * The values of the other members are skipped by the parser without being parsed.
+   *
+   * @param keys the keys of the members of the root object to keep.
+   * @return a new transform.
+   */
+  public JSONTransform keep(String... keys) {
+    var keySet = Set.of(keys);
+    return with(next -> new ForwardingVisitor(next) {
+      private int depth;
+
+      @Override
+      public boolean acceptKey(String key) {
+        return (depth != 1 || keySet.contains(key)) && next.acceptKey(key);
+      }
+
+      @Override
+      public void startObject(String key) {
+        depth++;
+        next.startObject(key);
+      }
+
+      @Override
+      public void endObject(String key) {
+        depth--;
+        next.endObject(key);
+      }
+
+      @Override
+      public void startArray(String key) {
+        depth++;
+        next.startArray(key);
+      }
+
+      @Override
+      public void endArray(String key) {
+        depth--;
+        next.endArray(key);
+      }
+    });
+  }
+
+  /**
+   * Returns a new transform that renames the keys of the members of the objects, at any depth.
+   *
+   * @param key the key to rename.
+   * @param newKey the new name of the key.
+   * @return a new transform.
+   */
+  public JSONTransform rename(String key, String newKey) {
+    return rename(Map.of(key, newKey));
+  }
+
+  /**
+   * Returns a new transform that renames the keys of the members of the objects, at any depth.
+   *
+   * @param renames a map that associates a key to its new name.
+   * @return a new transform.
+   */
+  public JSONTransform rename(Map<String, String> renames) {
+    var map = new HashMap<>(renames);  // allow to call get(null)
+    map.forEach((key, newKey) -> {
+      Objects.requireNonNull(key);
+      Objects.requireNonNull(newKey);
+    });
+    return with(next -> new ForwardingVisitor(next) {
+      @Override
+      String key(String key) {
+        return map.getOrDefault(key, key);
+      }
+    });
+  }
+
+  /**
+   * Returns a new transform that only keeps the values (strings, numbers, booleans and {@code null})
+   * accepted by a predicate, the predicate is called with the key of the value, {@code null}
+   * for an element of an array, and the value. The objects and the arrays are always kept.
+   *
+   * @param predicate the predicate called with the key and each value.
+   * @return a new transform.
+   */
+  public JSONTransform filterValues(BiPredicate<? super String, Object> predicate) {
+    Objects.requireNonNull(predicate);
+    return with(next -> new ForwardingVisitor(next) {
+      @Override
+      public void value(String key, Object value) {
+        if (predicate.test(key, value)) {
+          next.value(key, value);
+        }
+      }
+
+      @Override
+      public void intValue(String key, int value) {
+        if (predicate.test(key, value)) {
+          next.intValue(key, value);
+        }
+      }
+
+      @Override
+      public void longValue(String key, long value) {
+        if (predicate.test(key, value)) {
+          next.longValue(key, value);
+        }
+      }
+
+      @Override
+      public void doubleValue(String key, double value) {
+        if (predicate.test(key, value)) {
+          next.doubleValue(key, value);
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns a new transform that applies the stages of this transform then the stages of another transform.
+   *
+   * @param transform the transform applied after this one.
+   * @return a new transform.
+   */
+  public JSONTransform andThen(JSONTransform transform) {
+    Objects.requireNonNull(transform);
+    var stages = new ArrayList<>(this.stages);
+    stages.addAll(transform.stages);
+    return new JSONTransform(List.copyOf(stages));
+  }
+
+  /**
+   * Returns the visitor that applies the stages then calls a visitor,
+   * by example to transform the events of a {@link JSONFeedParser}.
+   *
+   * @param downstream the visitor called with the transformed events.
+   * @return a visitor that applies the stages of this transform.
+   */
+  public JSONVisitor visitor(JSONVisitor downstream) {
+    Objects.requireNonNull(downstream);
+    var visitor = downstream;
+    for (var i = stages.size(); --i >= 0;) {
+      visitor = stages.get(i).apply(visitor);
+    }
+    return visitor;
+  }
+
+  /**
+   * Transforms a JSON text and writes the resulting text.
+   *
+   * @param text a JSON text.
+   * @param out where to write the resulting text.
+   * @throws java.io.UncheckedIOException if an I/O error occurs when writing.
+   */
+  public void transform(String text, Appendable out) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(out);
+    ToyJSONParser.parse(text, visitor(new JSONStreamWriter(out)));
+  }
+
+  /**
+   * Transforms a JSON text.
+   *
+   * @param text a JSON text.
+   * @return the resulting text.
+   */
+  public String transform(String text) {
+    var builder = new StringBuilder(text.length());
+    transform(text, builder);
+    return builder.toString();
+  }
+
+  /**
+   * A visitor that forwards all the events to the next visitor, the keys can be changed
+   * by overriding {@link #key(String)}.
+   */
+  private static class ForwardingVisitor implements JSONVisitor {
+    final JSONVisitor next;
+
+    ForwardingVisitor(JSONVisitor next) {
+      this.next = next;
+    }
+
+    String key(String key) {
+      return key;
+    }
+
+    @Override
+    public boolean acceptKey(String key) {
+      return next.acceptKey(key(key));
+    }
+
+    @Override
+    public boolean acceptIndex(int index) {
+      return next.acceptIndex(index);
+    }
+
+    @Override
+    public void value(String key, Object value) {
+      next.value(key(key), value);
+    }
+
+    @Override
+    public void intValue(String key, int value) {
+      next.intValue(key(key), value);
+    }
+
+    @Override
+    public void longValue(String key, long value) {
+      next.longValue(key(key), value);
+    }
+
+    @Override
+    public void doubleValue(String key, double value) {
+      next.doubleValue(key(key), value);
+    }
+
+    @Override
+    public void startObject(String key) {
+      next.startObject(key(key));
+    }
+
+    @Override
+    public void endObject(String key) {
+      next.endObject(key(key));
+    }
+
+    @Override
+    public void startArray(String key) {
+      next.startArray(key(key));
+    }
+
+    @Override
+    public void endArray(String key) {
+      next.endArray(key(key));
+    }
+  }
+}
@@ -86,6 +86,37 @@ public final class JSONWriter {
     };
   }
 
+  /**
+   * Configures the writer to write the records or the beans of a sealed hierarchy
+   * with a discriminator, the first key of the JSON object, whose value is the simple name of the class.
+   * The function that writes each concrete class is pre-computed once from the permitted subclasses.
+   *
+   * @param sealedType a sealed interface or a sealed class.
+   * @param discriminatorKey the key of the discriminator.
+   * @throws IllegalArgumentException if the type is not sealed or if two subclasses have the same simple name.
+   * @throws IllegalStateException if a subclass is already configured.
+   *
+   * @see JSONReader.Collector#sealed(Class, String)
+   */
+  public void configureSealed(Class<?> sealedType, String discriminatorKey) {
+    Objects.requireNonNull(sealedType);
+    Objects.requireNonNull(discriminatorKey);
+    var subclasses = Utils.permittedSubclassesBySimpleName(sealedType).values();
+    for (var subclass : subclasses) {
+      if (funToApply.containsKey(subclass)) {
+        throw new IllegalStateException("configuration for " + subclass.getName() + " already exists");
+      }
+    }
+    for (var subclass : subclasses) {
+      var discriminator = "{\"" + discriminatorKey + SEPARATOR + "\"" + subclass.getSimpleName() + "\"";
+      var generators = BEAN_OR_RECORD_INFO_GENERATOR.get(subclass);
+      var prefix = generators.isEmpty() ? discriminator : discriminator + ", ";
+      funToApply.put(subclass, o -> generators.stream()
+          .map(generator -> generator.generate(this, o))
+          .collect(joining(", ", prefix, "}")));
+    }
+  }
+
   public <T> void configure(Class<T> cls, Function<T, String> functionToApply) {
     Objects.requireNonNull(cls);
     Objects.requireNonNull(functionToApply);
@@ -0,0 +1,226 @@
+package com.github.forax.framework.mapper;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A growable array of primitive values used to collect a JSON array of numbers
+ * without boxing each value.
+ *
+ * @see JSONReader.Collector#primitiveArray(Class)
+ * @see JSONReader.Collector#primitiveList(Class)
+ */
+abstract sealed class PrimitiveArrayBuilder {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  int size;
+
+  abstract void addInt(int value);
+
+  abstract void addLong(long value);
+
+  abstract void addDouble(double value);
+
+  /**
+   * Returns the values as an array of primitive values.
+   * @return the values as an array of primitive values.
+   */
+  abstract Object toArray();
+
+  /**
+   * Returns the values as an unmodifiable list backed by an array of primitive values.
+   * @return the values as an unmodifiable list.
+   */
+  abstract List<?> toList();
+
+  final void add(Object value) {
+    if (value instanceof Integer i) {
+      addInt(i);
+      return;
+    }
+    if (value instanceof Long l) {
+      addLong(l);
+      return;
+    }
+    if (value instanceof Double d) {
+      addDouble(d);
+      return;
+    }
+    throw invalidValue(value);
+  }
+
+  final IllegalStateException invalidValue(Object value) {
+    return new IllegalStateException("invalid value " + value + " for an array of " + componentType());
+  }
+
+  abstract Class<?> componentType();
+
+  static int newCapacity(int capacity) {
+    return capacity == 0 ? DEFAULT_CAPACITY : capacity << 1;
+  }
+
+  static PrimitiveArrayBuilder of(Class<?> componentType) {
+    if (componentType == int.class) {
+      return new IntArrayBuilder();
+    }
+    if (componentType == long.class) {
+      return new LongArrayBuilder();
+    }
+    if (componentType == double.class) {
+      return new DoubleArrayBuilder();
+    }
+    throw new IllegalArgumentException("unsupported component type " + componentType.getName());
+  }
+
+  static final class IntArrayBuilder extends PrimitiveArrayBuilder {
+    private int[] array = new int[0];
+
+    @Override
+    Class<?> componentType() {
+      return int.class;
+    }
+
+    @Override
+    void addInt(int value) {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, newCapacity(size));
+      }
+      array[size++] = value;
+    }
+
+    @Override
+    void addLong(long value) {
+      if (value != (int) value) {
+        throw invalidValue(value);
+      }
+      addInt((int) value);
+    }
+
+    @Override
+    void addDouble(double value) {
+      throw invalidValue(value);
+    }
+
+    @Override
+    int[] toArray() {
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    @Override
+    List<Integer> toList() {
+      var array = toArray();
+      class IntList extends AbstractList<Integer> implements RandomAccess {
+        @Override
+        public Integer get(int index) {
+          return array[index];
+        }
+
+        @Override
+        public int size() {
+          return array.length;
+        }
+      }
+      return new IntList();
+    }
+  }
+
+  static final class LongArrayBuilder extends PrimitiveArrayBuilder {
+    private long[] array = new long[0];
+
+    @Override
+    Class<?> componentType() {
+      return long.class;
+    }
+
+    @Override
+    void addInt(int value) {
+      addLong(value);
+    }
+
+    @Override
+    void addLong(long value) {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, newCapacity(size));
+      }
+      array[size++] = value;
+    }
+
+    @Override
+    void addDouble(double value) {
+      throw invalidValue(value);
+    }
+
+    @Override
+    long[] toArray() {
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    @Override
+    List<Long> toList() {
+      var array = toArray();
+      class LongList extends AbstractList<Long> implements RandomAccess {
+        @Override
+        public Long get(int index) {
+          return array[index];
+        }
+
+        @Override
+        public int size() {
+          return array.length;
+        }
+      }
+      return new LongList();
+    }
+  }
+
+  static final class DoubleArrayBuilder extends PrimitiveArrayBuilder {
+    private double[] array = new double[0];
+
+    @Override
+    Class<?> componentType() {
+      return double.class;
+    }
+
+    @Override
+    void addInt(int value) {
+      addDouble(value);
+    }
+
+    @Override
+    void addLong(long value) {
+      addDouble(value);
+    }
+
+    @Override
+    void addDouble(double value) {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, newCapacity(size));
+      }
+      array[size++] = value;
+    }
+
+    @Override
+    double[] toArray() {
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    @Override
+    List<Double> toList() {
+      var array = toArray();
+      class DoubleList extends AbstractList<Double> implements RandomAccess {
+        @Override
+        public Double get(int index) {
+          return array[index];
+        }
+
+        @Override
+        public int size() {
+          return array.length;
+        }
+      }
+      return new DoubleList();
+    }
+  }
+}
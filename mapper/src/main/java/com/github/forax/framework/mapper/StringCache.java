@@ -0,0 +1,88 @@
+package com.github.forax.framework.mapper;
+
+/**
+ * A bounded cache of strings used to deduplicate the strings of a JSON text,
+ * the keys and the string values that are repeated many times like status codes, country codes or tags.
+ *
+ * <p>The cache is a direct-mapped table indexed by the hash of the characters, if the characters
+ * of a string are already in the table the cached string is returned without allocating a new string,
+ * otherwise the new string replaces the previous entry.
+ * Strings longer than {@value #MAX_LENGTH} characters are never cached.
+ *
+ * <p>A cache can be shared between threads, the worst case being that a string is not deduplicated.
+ *
+ * @see JSONReader#setStringCache(StringCache)
+ */
+public final class StringCache {
+  /**
+   * The maximum length of a cached string.
+   */
+  public static final int MAX_LENGTH = 64;
+
+  private final String[] table;
+
+  /**
+   * Creates a cache that can store at most {@code capacity} strings.
+   *
+   * @param capacity the maximum number of strings, rounded to the next power of two.
+   */
+  public StringCache(int capacity) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("invalid capacity " + capacity);
+    }
+    var size = Integer.highestOneBit(capacity);
+    table = new String[size == capacity ? size : size << 1];
+  }
+
+  /**
+   * Returns a string with the characters of {@code text} between {@code start} and {@code end}
+   * and stores it in the cache.
+   *
+   * @param text a text.
+   * @param start the start index, inclusive.
+   * @param end the end index, exclusive.
+   * @return a string with the characters of the text between the start and the end.
+   */
+  String get(String text, int start, int end) {
+    var length = end - start;
+    if (length > MAX_LENGTH) {
+      return text.substring(start, end);
+    }
+    var index = index(text, start, end);
+    var entry = table[index];
+    if (entry != null && entry.length() == length && entry.regionMatches(0, text, start, length)) {
+      return entry;
+    }
+    var string = text.substring(start, end);
+    table[index] = string;
+    return string;
+  }
+
+  private int index(String text, int start, int end) {
+    var hash = 0;
+    for (var i = start; i < end; i++) {
+      hash = 31 * hash + text.charAt(i);
+    }
+    return (hash ^ hash >>> 16) & (table.length - 1);
+  }
+
+  /**
+   * Returns the cached string equal to {@code string} or stores it in the cache.
+   *
+   * @param string a string.
+   * @return a string equal to the string taken as argument.
+   */
+  String get(String string) {
+    var length = string.length();
+    if (length > MAX_LENGTH) {
+      return string;
+    }
+    var index = index(string, 0, length);
+    var entry = table[index];
+    if (string.equals(entry)) {
+      return entry;
+    }
+    table[index] = string;
+    return string;
+  }
+}
@@ -1,10 +1,9 @@
 package com.github.forax.framework.mapper;
 
 import static java.lang.Double.parseDouble;
-import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
 import static java.util.regex.Pattern.compile;
 import static java.util.stream.Collectors.joining;
-import static java.util.stream.IntStream.rangeClosed;
 import static com.github.forax.framework.mapper.ToyJSONParser.Kind.*;
 
 import java.util.Arrays;
@@ -12,12 +11,12 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * A Toy JSON parser that do not recognize correctly, unicode characters, escaped strings
+ * A Toy JSON parser that do not recognize correctly, unicode characters
  * and i'm sure many more features.
  *
  * @see #parse(String, JSONVisitor)
  */
-class ToyJSONParser {
+public final class ToyJSONParser {
   private ToyJSONParser() {
     throw new AssertionError();
   }
@@ -26,9 +25,9 @@ class ToyJSONParser {
     NULL("(null)"),
     TRUE("(true)"),
     FALSE("(false)"),
-    DOUBLE("([0-9]*\\.[0-9]*)"),
-    INTEGER("([0-9]+)"),
-    STRING("\"([^\\\"]*)\""),
+    DOUBLE("(-?[0-9]+(?:\\.[0-9]*)?[eE][+-]?[0-9]+|-?[0-9]*\\.[0-9]*)"),  // with an exponent as written by Double.toString()
+    INTEGER("(-?[0-9]+)"),
+    STRING("\"([^\"\\\\]*+(?:\\\\.[^\"\\\\]*+)*+)\""),
     LEFT_CURLY("(\\{)"),
     RIGHT_CURLY("(\\})"),
     LEFT_BRACKET("(\\[)"),
@@ -47,38 +46,332 @@ class ToyJSONParser {
     private static final Kind[] VALUES = values();
   }
 
-  private record Token(Kind kind, String text, int location) {
+  /**
+   * A lexer that stores the current token in its fields, so recognizing a token does not allocate.
+   * A lexer can be reused to parse several texts.
+   */
+  private static final class Lexer {
+    private final Matcher matcher = PATTERN.matcher("");
+    private String input;
+    private StringCache stringCache;
+    private Kind kind;  // the current token
+    private int start;
+    private int end;
+
+    private void reset(String input, StringCache stringCache) {
+      this.input = input;
+      this.stringCache = stringCache;
+      matcher.reset(input);
+    }
+
     private boolean is(Kind kind) {
       return this.kind == kind;
     }
 
+    /**
+     * Returns the text of the current token, a string is decoded.
+     */
+    private String text() {
+      return kind == Kind.STRING ? string(start, end) : input.substring(start, end);
+    }
+
     private String expect(Kind kind) {
       if (this.kind != kind) {
         throw error(kind);
       }
-      return text;
+      return text();
     }
 
-    public IllegalStateException error(Kind... expectedKinds) {
-      return new IllegalStateException("expect " + Arrays.stream(expectedKinds).map(Kind::name).collect(joining(", ")) + " but recognized " + kind + " at " + location);
+    private IllegalStateException error(Kind... expectedKinds) {
+      return new IllegalStateException("expect " + Arrays.stream(expectedKinds).map(Kind::name).collect(joining(", ")) + " but recognized " + kind + " at " + start);
     }
-  }
 
-  private record Lexer(Matcher matcher) {
-    private Token next() {
+    private Kind next() {
       for(;;) {
         if (!matcher.find()) {
           throw new IllegalStateException("no token recognized");
         }
-        var index = rangeClosed(1, matcher.groupCount()).filter(i -> matcher.group(i) != null).findFirst().orElseThrow();
+        var index = group();
         var kind = Kind.VALUES[index - 1];
         if (kind != Kind.BLANK) {
-          return new Token(kind, matcher.group(index), matcher.start(index));
+          this.kind = kind;
+          start = matcher.start(index);
+          end = matcher.end(index);
+          return kind;
+        }
+      }
+    }
+
+    /**
+     * Returns the index of the group that matches.
+     */
+    private int group() {
+      var groupCount = matcher.groupCount();
+      for (var i = 1; i <= groupCount; i++) {
+        if (matcher.start(i) != -1) {
+          return i;
+        }
+      }
+      throw new AssertionError();
+    }
+
+    /**
+     * Returns the decoded string between start and end, deduplicated if there is a string cache.
+     */
+    private String string(int start, int end) {
+      for (var i = start; i < end; i++) {
+        if (input.charAt(i) == '\\') {
+          var string = decodeString(input, start, i, end);
+          return stringCache == null ? string : stringCache.get(string);
+        }
+      }
+      return stringCache == null ? input.substring(start, end) : stringCache.get(input, start, end);
+    }
+
+    /**
+     * Skips the next value without recognizing its tokens, only the curly braces,
+     * the brackets and the strings are matched.
+     */
+    private void skipValue() {
+      skipValue(skipBlanks(matcher.end()));
+    }
+
+    /**
+     * Skips the value starting with the current token, an object or an array is skipped
+     * without recognizing its tokens, a scalar value is already recognized.
+     */
+    private void skipCurrentValue() {
+      switch (kind) {
+        case LEFT_CURLY, LEFT_BRACKET -> skipValue(start);
+        case NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING -> {}
+        default -> throw error(NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_CURLY, LEFT_BRACKET);
+      }
+    }
+
+    private void skipValue(int start) {
+      var length = input.length();
+      var depth = 0;
+      for(var index = start; index < length; index++) {
+        switch (input.charAt(index)) {
+          case '{', '[' -> depth++;
+          case '}', ']' -> {
+            if (depth == 0) {  // end of the enclosing object or array
+              skipTo(start, index);
+              return;
+            }
+            if (--depth == 0) {
+              skipTo(start, index + 1);
+              return;
+            }
+          }
+          case '"' -> {
+            index = skipString(index);
+            if (depth == 0) {
+              skipTo(start, index + 1);
+              return;
+            }
+          }
+          case ',', ' ', '\t', '\r', '\n' -> {
+            if (depth == 0) {  // end of a scalar value
+              skipTo(start, index);
+              return;
+            }
+          }
+          default -> {}
         }
       }
+      if (depth != 0) {
+        throw new IllegalStateException("unterminated value at " + start);
+      }
+      skipTo(start, length);
+    }
+
+    private void skipTo(int start, int end) {
+      if (start == end) {
+        throw new IllegalStateException("no value to skip at " + start);
+      }
+      matcher.region(end, input.length());
+    }
+
+    private int skipBlanks(int index) {
+      var length = input.length();
+      while (index < length && Character.isWhitespace(input.charAt(index))) {
+        index++;
+      }
+      return index;
+    }
+
+    /**
+     * Returns the index of the closing quote of the string starting at {@code start}.
+     */
+    private int skipString(int start) {
+      var length = input.length();
+      for (var index = start + 1; index < length; index++) {
+        switch (input.charAt(index)) {
+          case '\\' -> index++;
+          case '"' -> {
+            return index;
+          }
+          default -> {}
+        }
+      }
+      throw new IllegalStateException("unterminated string at " + start);
     }
   }
 
+  /**
+   * Finds the boundaries of the elements of a JSON array without recognizing their tokens,
+   * only the curly braces, the brackets, the commas and the strings are matched.
+   *
+   * @param input a JSON array.
+   * @return an array containing the start index (inclusive) and the end index (exclusive)
+   *         of each element of the array, one after the other.
+   * @throws IllegalStateException if the text is not a JSON array, is not well balanced
+   *         or if there is something else than blanks after the array.
+   */
+  static int[] arrayElements(String input) {
+    var length = input.length();
+    var index = 0;
+    while (index < length && Character.isWhitespace(input.charAt(index))) {
+      index++;
+    }
+    if (index == length || input.charAt(index) != '[') {
+      throw new IllegalStateException("expect LEFT_BRACKET at " + index);
+    }
+    var boundaries = new int[16];
+    var size = 0;
+    var start = index + 1;
+    var depth = 0;
+    var empty = true;  // true if there is no character except blanks since the start of the element
+    for (index = start; index < length; index++) {
+      var c = input.charAt(index);
+      switch (c) {
+        case '{', '[' -> depth++;
+        case '}', ']' -> {
+          if (depth-- == 0) {
+            if (c != ']') {
+              throw new IllegalStateException("expect RIGHT_BRACKET at " + index);
+            }
+            for (var i = index + 1; i < length; i++) {
+              if (!Character.isWhitespace(input.charAt(i))) {
+                throw new IllegalStateException("unexpected content after the end of the array at " + i);
+              }
+            }
+            if (empty && size == 0) {  // empty array
+              return new int[0];
+            }
+            boundaries = addElement(boundaries, size, start, index, empty);
+            return Arrays.copyOf(boundaries, size + 2);
+          }
+        }
+        case '"' -> {
+          for (index++; index < length && input.charAt(index) != '"'; index++) {
+            if (input.charAt(index) == '\\') {
+              index++;
+            }
+          }
+          if (index >= length) {
+            throw new IllegalStateException("unterminated string");
+          }
+        }
+        case ',' -> {
+          if (depth == 0) {
+            boundaries = addElement(boundaries, size, start, index, empty);
+            size += 2;
+            start = index + 1;
+            empty = true;
+            continue;
+          }
+        }
+        default -> {}
+      }
+      if (!Character.isWhitespace(c)) {
+        empty = false;
+      }
+    }
+    throw new IllegalStateException("unterminated array");
+  }
+
+  private static int[] addElement(int[] boundaries, int size, int start, int end, boolean empty) {
+    if (empty) {
+      throw new IllegalStateException("no element at " + end);
+    }
+    if (size + 2 > boundaries.length) {
+      boundaries = Arrays.copyOf(boundaries, boundaries.length << 1);
+    }
+    boundaries[size] = start;
+    boundaries[size + 1] = end;
+    return boundaries;
+  }
+
+  /**
+   * Decodes the escape sequences of the content of a JSON string.
+   * The runs of characters between two escape sequences are copied in bulk from the input and
+   * if there is no escape sequence, the content is returned as is.
+   *
+   * @param input a text containing a JSON string.
+   * @param start the index of the first character of the content of the string, after the quote.
+   * @param end the index of the end of the content of the string, the index of the closing quote.
+   * @return the decoded string.
+   * @throws IllegalStateException if an escape sequence is invalid, the error message contains its index in the input.
+   */
+  static String decodeString(String input, int start, int end) {
+    for (var i = start; i < end; i++) {
+      if (input.charAt(i) == '\\') {
+        return decodeString(input, start, i, end);
+      }
+    }
+    return input.substring(start, end);
+  }
+
+  /**
+   * Decodes the content of a JSON string knowing the index of the first escape sequence.
+   */
+  private static String decodeString(String input, int start, int escape, int end) {
+    var builder = new StringBuilder(end - start);
+    do {
+      builder.append(input, start, escape);
+      if (escape + 1 == end) {
+        throw new IllegalStateException("invalid escape sequence at " + escape);
+      }
+      var c = input.charAt(escape + 1);
+      start = escape + 2;
+      switch (c) {
+        case '"', '\\', '/' -> builder.append(c);
+        case 'b' -> builder.append('\b');
+        case 'f' -> builder.append('\f');
+        case 'n' -> builder.append('\n');
+        case 'r' -> builder.append('\r');
+        case 't' -> builder.append('\t');
+        case 'u' -> {
+          if (start + 4 > end) {
+            throw new IllegalStateException("invalid unicode escape sequence at " + escape);
+          }
+          builder.append(decodeHex(input, start));
+          start += 4;
+        }
+        default -> throw new IllegalStateException("invalid escape sequence \\" + c + " at " + escape);
+      }
+      escape = start;
+      while (escape < end && input.charAt(escape) != '\\') {
+        escape++;
+      }
+    } while (escape != end);
+    return builder.append(input, start, end).toString();
+  }
+
+  private static char decodeHex(String input, int start) {
+    var value = 0;
+    for (var i = start; i < start + 4; i++) {
+      var digit = Character.digit(input.charAt(i), 16);
+      if (digit == -1) {
+        throw new IllegalStateException("invalid unicode escape sequence at " + (start - 2));
+      }
+      value = value << 4 | digit;
+    }
+    return (char) value;
+  }
+
   /**
    * Methods called when a JSON text is parsed.
    * @see #parse(String, JSONVisitor)
@@ -92,6 +385,70 @@ class ToyJSONParser {
      */
     void value(String key, Object value);
 
+    /**
+     * Called during the parsing of an object with the key of a value before the value is parsed.
+     * If this method returns false, the value is skipped without being parsed,
+     * only the curly braces, the brackets and the strings are matched, and
+     * no other method of the visitor is called for that value.
+     * By default, returns true.
+     *
+     * @param key the key of the value.
+     * @return true if the value should be parsed, false if the value should be skipped.
+     */
+    default boolean acceptKey(String key) {
+      return true;
+    }
+
+    /**
+     * Called during the parsing of an array with the index of an element before the element is parsed.
+     * If this method returns false, the element is skipped without being parsed,
+     * only the curly braces, the brackets and the strings are matched, and
+     * no other method of the visitor is called for that element.
+     * By default, returns true.
+     *
+     * @param index the index of the element in the array.
+     * @return true if the element should be parsed, false if the element should be skipped.
+     */
+    default boolean acceptIndex(int index) {
+      return true;
+    }
+
+    /**
+     * Called during the parsing or the content of an object or an array
+     * when the value is an integer that fits in an {@code int}.
+     * By default, calls {@link #value(String, Object)} with the boxed value.
+     *
+     * @param key the key of the value if inside an object, {@code null} otherwise.
+     * @param value the value
+     */
+    default void intValue(String key, int value) {
+      value(key, value);
+    }
+
+    /**
+     * Called during the parsing or the content of an object or an array
+     * when the value is an integer that does not fit in an {@code int}.
+     * By default, calls {@link #value(String, Object)} with the boxed value.
+     *
+     * @param key the key of the value if inside an object, {@code null} otherwise.
+     * @param value the value
+     */
+    default void longValue(String key, long value) {
+      value(key, value);
+    }
+
+    /**
+     * Called during the parsing or the content of an object or an array
+     * when the value is a floating point number.
+     * By default, calls {@link #value(String, Object)} with the boxed value.
+     *
+     * @param key the key of the value if inside an object, {@code null} otherwise.
+     * @param value the value
+     */
+    default void doubleValue(String key, double value) {
+      value(key, value);
+    }
+
     /**
      * Called during the parsing at the beginning of an object.
      * @param key the key of the value if inside an object, {@code null} otherwise.
@@ -134,17 +491,52 @@ class ToyJSONParser {
    * @param visitor the visitor to call when parsing the JSON text
    */
   public static void parse(String input, JSONVisitor visitor) {
-    var lexer = new Lexer(PATTERN.matcher(input));
-    try {
-      parse(lexer, visitor);
-    } catch(IllegalStateException e) {
-      throw new IllegalStateException(e.getMessage() + "\n while parsing " + input, e);
+    parse(input, visitor, null);
+  }
+
+  /**
+   * Parse a JSON text and calls the visitor methods when an array, an object or a value is parsed.
+   * The keys and the string values are deduplicated using a string cache.
+   *
+   * @param input a JSON text
+   * @param visitor the visitor to call when parsing the JSON text
+   * @param stringCache the cache used to deduplicate the strings or {@code null}
+   */
+  public static void parse(String input, JSONVisitor visitor, StringCache stringCache) {
+    new Parser().parse(input, visitor, stringCache);
+  }
+
+  /**
+   * A parser that can be reused to parse several JSON texts, one at a time,
+   * to avoid allocating a new lexer and a new {@link Matcher} for each text.
+   * A parser is not thread safe.
+   */
+  static final class Parser {
+    private final Lexer lexer = new Lexer();
+
+    /**
+     * Parse a JSON text and calls the visitor methods when an array, an object or a value is parsed.
+     *
+     * @param input a JSON text
+     * @param visitor the visitor to call when parsing the JSON text
+     * @param stringCache the cache used to deduplicate the strings or {@code null}
+     *
+     * @see ToyJSONParser#parse(String, JSONVisitor, StringCache)
+     */
+    void parse(String input, JSONVisitor visitor, StringCache stringCache) {
+      lexer.reset(input, stringCache);
+      try {
+        ToyJSONParser.parse(lexer, visitor);
+      } catch(IllegalStateException e) {
+        throw new IllegalStateException(e.getMessage() + "\n while parsing " + input, e);
+      } finally {
+        lexer.reset("", null);  // do not retain the text
+      }
     }
   }
 
   private static void parse(Lexer lexer, JSONVisitor visitor) {
-    var token = lexer.next();
-    switch(token.kind) {
+    switch(lexer.next()) {
       case LEFT_CURLY -> {
         visitor.startObject(null);
         parseObject(null, lexer, visitor);
@@ -153,18 +545,18 @@ class ToyJSONParser {
         visitor.startArray(null);
         parseArray(null, lexer, visitor);
       }
-      default -> throw token.error(LEFT_CURLY, LEFT_BRACKET);
+      default -> throw lexer.error(LEFT_CURLY, LEFT_BRACKET);
     }
   }
 
-  private static void parseValue(String currentKey, Token token, Lexer lexer, JSONVisitor visitor) {
-    switch (token.kind) {
+  private static void parseValue(String currentKey, Lexer lexer, JSONVisitor visitor) {
+    switch (lexer.kind) {
       case NULL -> visitor.value(currentKey, null);
       case FALSE -> visitor.value(currentKey, false);
       case TRUE -> visitor.value(currentKey, true);
-      case INTEGER -> visitor.value(currentKey, parseInt(token.text));
-      case DOUBLE -> visitor.value(currentKey, parseDouble(token.text));
-      case STRING -> visitor.value(currentKey, token.text);
+      case INTEGER -> parseInteger(currentKey, parseLong(lexer.input, lexer.start, lexer.end, 10), visitor);
+      case DOUBLE -> visitor.doubleValue(currentKey, parseDouble(lexer.text()));
+      case STRING -> visitor.value(currentKey, lexer.text());
       case LEFT_CURLY -> {
         visitor.startObject(currentKey);
         parseObject(currentKey, lexer, visitor);
@@ -173,46 +565,68 @@ class ToyJSONParser {
         visitor.startArray(currentKey);
         parseArray(currentKey, lexer, visitor);
       }
-      default -> throw token.error(NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_BRACKET, RIGHT_CURLY);
+      default -> throw lexer.error(NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_BRACKET, RIGHT_CURLY);
+    }
+  }
+
+  // package visibility for JSONFeedParser
+  static void parseInteger(String currentKey, String text, JSONVisitor visitor) {
+    parseInteger(currentKey, parseLong(text), visitor);
+  }
+
+  private static void parseInteger(String currentKey, long value, JSONVisitor visitor) {
+    if (value == (int) value) {
+      visitor.intValue(currentKey, (int) value);
+    } else {
+      visitor.longValue(currentKey, value);
     }
   }
 
   private static void parseObject(String currentKey, Lexer lexer, JSONVisitor visitor) {
-    var token = lexer.next();
-    if (token.is(RIGHT_CURLY)) {
+    lexer.next();
+    if (lexer.is(RIGHT_CURLY)) {
       visitor.endObject(currentKey);
       return;
     }
     for(;;) {
-      var key = token.expect(STRING);
-      lexer.next().expect(COLON);
-      token = lexer.next();
-      parseValue(key, token, lexer, visitor);
-      token = lexer.next();
-      if (token.is(RIGHT_CURLY)) {
+      var key = lexer.expect(STRING);
+      lexer.next();
+      lexer.expect(COLON);
+      if (visitor.acceptKey(key)) {
+        lexer.next();
+        parseValue(key, lexer, visitor);
+      } else {
+        lexer.skipValue();
+      }
+      lexer.next();
+      if (lexer.is(RIGHT_CURLY)) {
         visitor.endObject(currentKey);
         return;
       }
-      token.expect(COMMA);
-      token = lexer.next();
+      lexer.expect(COMMA);
+      lexer.next();
     }
   }
 
   private static void parseArray(String currentKey, Lexer lexer, JSONVisitor visitor) {
-    var token = lexer.next();
-    if (token.is(RIGHT_BRACKET)) {
+    lexer.next();
+    if (lexer.is(RIGHT_BRACKET)) {
       visitor.endArray(currentKey);
       return;
     }
-    for(;;) {
-      parseValue(null, token, lexer, visitor);
-      token = lexer.next();
-      if (token.is(RIGHT_BRACKET)) {
+    for(var index = 0;; index++) {
+      if (visitor.acceptIndex(index)) {
+        parseValue(null, lexer, visitor);
+      } else {
+        lexer.skipCurrentValue();
+      }
+      lexer.next();
+      if (lexer.is(RIGHT_BRACKET)) {
         visitor.endArray(currentKey);
         return;
       }
-      token.expect(COMMA);
-      token = lexer.next();
+      lexer.expect(COMMA);
+      lexer.next();
     }
   }
-}
\ No newline at end of file
+}
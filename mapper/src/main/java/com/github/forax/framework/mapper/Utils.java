@@ -3,10 +3,14 @@ package com.github.forax.framework.mapper;
 import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.RecordComponent;
 import java.lang.reflect.Type;
@@ -14,7 +18,11 @@ import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
 import java.util.AbstractList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.RandomAccess;
 
 final class Utils {
@@ -43,7 +51,7 @@ final class Utils {
   }
 
   @SuppressWarnings("unchecked")   // very wrong but works
-  private static <T extends Throwable> AssertionError rethrow(Throwable cause) throws T {
+  public static <T extends Throwable> AssertionError rethrow(Throwable cause) throws T {
     throw (T) cause;
   }
 
@@ -63,6 +71,26 @@ final class Utils {
     }
   }
 
+  public static MethodHandle constructorHandle(Constructor<?> constructor) {
+    try {
+      return MethodHandles.lookup().unreflectConstructor(constructor);
+    } catch (IllegalAccessException e) {
+      throw (IllegalAccessError) new IllegalAccessError().initCause(e);
+    }
+  }
+
+  public static MethodHandle methodHandle(Method method) {
+    try {
+      return MethodHandles.lookup().unreflect(method);
+    } catch (IllegalAccessException e) {
+      throw (IllegalAccessError) new IllegalAccessError().initCause(e);
+    }
+  }
+
+  public static Object defaultValue(Class<?> type) {
+    return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+  }
+
   public static <T> T newInstance(Constructor<T> constructor, Object... args) {
     try {
       return constructor.newInstance(args);
@@ -92,6 +120,43 @@ final class Utils {
     };
   }
 
+  /**
+   * Returns the concrete subclasses of a sealed type, the permitted subclasses that are sealed
+   * are replaced by their own permitted subclasses.
+   */
+  public static List<Class<?>> permittedSubclasses(Class<?> sealedType) {
+    if (!sealedType.isSealed()) {
+      throw new IllegalArgumentException(sealedType.getName() + " is not sealed");
+    }
+    var subclasses = new LinkedHashSet<Class<?>>();  // a subclass can be reached by several paths
+    for (var subclass : sealedType.getPermittedSubclasses()) {
+      if (!subclass.isInterface() && !Modifier.isAbstract(subclass.getModifiers())) {
+        subclasses.add(subclass);
+      }
+      if (subclass.isSealed()) {
+        subclasses.addAll(permittedSubclasses(subclass));
+      }
+    }
+    return List.copyOf(subclasses);
+  }
+
+  /**
+   * Returns the concrete permitted subclasses of a sealed type indexed by their simple name,
+   * the name used as discriminator by the reader and the writer.
+   *
+   * @throws IllegalArgumentException if the type is not sealed or if two subclasses have the same simple name.
+   */
+  public static Map<String, Class<?>> permittedSubclassesBySimpleName(Class<?> sealedType) {
+    var subclassMap = new LinkedHashMap<String, Class<?>>();
+    for (var subclass : permittedSubclasses(sealedType)) {
+      var previous = subclassMap.put(subclass.getSimpleName(), subclass);
+      if (previous != null && previous != subclass) {
+        throw new IllegalArgumentException("several subclasses named " + subclass.getSimpleName() + " in " + sealedType.getName());
+      }
+    }
+    return Collections.unmodifiableMap(subclassMap);
+  }
+
   public static Class<?> erase(Type type) {
     /*
     // TODO use a switch on type here
@@ -0,0 +1,148 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JSONDocumentTest {
+  public record Item(String name, int quantity, double price) { }
+  public record Order(String customer, List<Item> items) { }
+
+  private static final String ORDER = """
+      {
+        "id": 12345678901,
+        "customer": "Bob",
+        "paid": true,
+        "cancelled": false,
+        "comment": null,
+        "items": [
+          { "name": "pen", "quantity": 3, "price": 1.5 },
+          { "name": "book", "quantity": 1, "price": 12.25 }
+        ]
+      }
+      """;
+
+  @Test
+  public void navigate() {
+    var root = JSONDocument.parse(ORDER).root();
+    var items = root.get("items");
+    assertAll(
+        () -> assertEquals(JSONDocument.Kind.OBJECT, root.kind()),
+        () -> assertEquals(6, root.size()),
+        () -> assertEquals(12345678901L, root.get("id").longValue()),
+        () -> assertEquals("Bob", root.get("customer").stringValue()),
+        () -> assertTrue(root.get("paid").booleanValue()),
+        () -> assertFalse(root.get("cancelled").booleanValue()),
+        () -> assertTrue(root.get("comment").isNull()),
+        () -> assertNull(root.get("unknown")),
+        () -> assertEquals(JSONDocument.Kind.ARRAY, items.kind()),
+        () -> assertEquals(2, items.size()),
+        () -> assertEquals("book", items.get(1).get("name").stringValue()),
+        () -> assertEquals(3, items.get(0).get("quantity").intValue()),
+        () -> assertEquals(12.25, items.get(1).get("price").doubleValue())
+    );
+  }
+
+  @Test
+  public void iterate() {
+    var root = JSONDocument.parse(ORDER).root();
+    var keys = new ArrayList<String>();
+    root.forEach((key, value) -> keys.add(key));
+    var names = root.get("items").elements().stream().map(item -> item.get("name").stringValue()).toList();
+    assertAll(
+        () -> assertEquals(List.of("id", "customer", "paid", "cancelled", "comment", "items"), keys),
+        () -> assertEquals(List.of("pen", "book"), names)
+    );
+  }
+
+  @Test
+  public void numbers() {
+    var root = JSONDocument.parse("[ 0, -1, 2147483647, -2147483649, 1.5, -0.25 ]").root();
+    assertAll(
+        () -> assertEquals(0, root.get(0).intValue()),
+        () -> assertEquals(-1, root.get(1).intValue()),
+        () -> assertEquals(Integer.MAX_VALUE, root.get(2).intValue()),
+        () -> assertEquals(-2147483649L, root.get(3).longValue()),
+        () -> assertEquals(JSONDocument.Kind.LONG, root.get(3).kind()),
+        () -> assertEquals(1.5, root.get(4).doubleValue()),
+        () -> assertEquals(-0.25, root.get(5).doubleValue()),
+        () -> assertEquals(-1.0, root.get(1).doubleValue())
+    );
+  }
+
+  @Test
+  public void emptyAndNested() {
+    var root = JSONDocument.parse("""
+        { "a": {}, "b": [], "c": [ [ 1 ], { "d": [ 2, 3 ] } ], "e": "end" }
+        """).root();
+    assertAll(
+        () -> assertEquals(0, root.get("a").size()),
+        () -> assertEquals(0, root.get("b").size()),
+        () -> assertEquals(3, root.get("c").get(1).get("d").get(1).intValue()),
+        () -> assertEquals("end", root.get("e").stringValue())
+    );
+  }
+
+  @Test
+  public void repeatedStringsAreStoredOnce() {
+    var one = JSONDocument.parse("""
+        [ { "name": "a" } ]
+        """);
+    var two = JSONDocument.parse("""
+        [ { "name": "a" }, { "name": "a" } ]
+        """);
+    assertEquals(one.byteSize() + 3 * Long.BYTES, two.byteSize());
+  }
+
+  @Test
+  public void invalidAccesses() {
+    var root = JSONDocument.parse(ORDER).root();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> root.get(0)),
+        () -> assertThrows(IllegalStateException.class, () -> root.elements()),
+        () -> assertThrows(IllegalStateException.class, () -> root.get("customer").intValue()),
+        () -> assertThrows(IllegalStateException.class, () -> root.get("id").intValue()),
+        () -> assertThrows(IllegalStateException.class, () -> root.get("customer").size()),
+        () -> assertThrows(IllegalStateException.class, () -> root.get("items").get("name")),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> root.get("items").get(2)),
+        () -> assertThrows(NullPointerException.class, () -> root.get(null)),
+        () -> assertThrows(NullPointerException.class, () -> JSONDocument.parse(null))
+    );
+  }
+
+  @Test
+  public void convertWithAReader() {
+    var reader = new JSONReader();
+    reader.setUnknownKeyPolicy(JSONReader.UnknownKeyPolicy.LENIENT);
+    reader.addTypeMatcher(type -> Optional.of(type)
+        .flatMap(t -> t instanceof ParameterizedType parameterizedType? Optional.of(parameterizedType): Optional.empty())
+        .filter(t -> t.getRawType() == List.class)
+        .map(t -> JSONReader.Collector.list(t.getActualTypeArguments()[0])));
+    reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.Collector::record));
+    var root = JSONDocument.parse(ORDER).root();
+    assertAll(
+        () -> assertEquals(new Item("pen", 3, 1.5), root.get("items").get(0).to(reader, Item.class)),
+        () -> assertEquals(new Order("Bob", List.of(new Item("pen", 3, 1.5), new Item("book", 1, 12.25))), root.to(reader, Order.class)),
+        () -> assertThrows(IllegalStateException.class, () -> root.get("customer").to(reader, String.class))
+    );
+  }
+
+  @Test
+  public void valueEquality() {
+    var document = JSONDocument.parse(ORDER);
+    assertAll(
+        () -> assertEquals(document.root().get("items"), document.root().get("items")),
+        () -> assertFalse(document.root().get("items").equals(JSONDocument.parse(ORDER).root().get("items")))
+    );
+  }
+}
@@ -0,0 +1,209 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JSONFeedParserTest {
+  private static final class EventVisitor implements JSONVisitor {
+    private final ArrayList<String> events = new ArrayList<>();
+    private final String skippedKey;
+    private final int skippedIndex;
+
+    private EventVisitor(String skippedKey) {
+      this(skippedKey, -1);
+    }
+
+    private EventVisitor(String skippedKey, int skippedIndex) {
+      this.skippedKey = skippedKey;
+      this.skippedIndex = skippedIndex;
+    }
+
+    @Override
+    public boolean acceptKey(String key) {
+      return !key.equals(skippedKey);
+    }
+
+    @Override
+    public boolean acceptIndex(int index) {
+      return index != skippedIndex;
+    }
+
+    @Override
+    public void value(String key, Object value) {
+      events.add("value " + key + " " + value + (value == null ? "" : " " + value.getClass().getSimpleName()));
+    }
+
+    @Override
+    public void startObject(String key) {
+      events.add("startObject " + key);
+    }
+
+    @Override
+    public void endObject(String key) {
+      events.add("endObject " + key);
+    }
+
+    @Override
+    public void startArray(String key) {
+      events.add("startArray " + key);
+    }
+
+    @Override
+    public void endArray(String key) {
+      events.add("endArray " + key);
+    }
+  }
+
+  private static List<String> parse(String text, String skippedKey) {
+    var visitor = new EventVisitor(skippedKey);
+    ToyJSONParser.parse(text, visitor);
+    return visitor.events;
+  }
+
+  private static List<String> feed(String text, String skippedKey, int chunkSize) {
+    var visitor = new EventVisitor(skippedKey);
+    var parser = new JSONFeedParser(visitor);
+    var bytes = text.getBytes(StandardCharsets.UTF_8);
+    for (var i = 0; i < bytes.length; i += chunkSize) {
+      parser.feed(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+    }
+    parser.endOfInput();
+    return visitor.events;
+  }
+
+  private static void assertSameEvents(String text, String skippedKey) {
+    var expected = parse(text, skippedKey);
+    var length = text.getBytes(StandardCharsets.UTF_8).length;
+    for (var chunkSize = 1; chunkSize <= length; chunkSize++) {
+      assertEquals(expected, feed(text, skippedKey, chunkSize), "chunk size " + chunkSize);
+    }
+  }
+
+  @Test
+  public void feedObject() {
+    assertSameEvents("""
+        { "name": "Bob", "age": 42, "size": 1.75, "id": 12345678901, "alive": true, "dead": false, "pet": null }
+        """, null);
+  }
+
+  @Test
+  public void feedNestedValues() {
+    assertSameEvents("""
+        [ { "a": [ 1, -2, [ ] ], "b": { } }, "x", [ { "c": { "d": [ 3 ] } } ] ]
+        """, null);
+  }
+
+  @Test
+  public void feedEscapedAndUnicodeStrings() {
+    assertSameEvents("""
+        { "été": "caf\\u00e9 \\"déjà\\" 😀", "tab": "a\\tb" }
+        """, null);
+  }
+
+  @Test
+  public void feedSkippedKeys() {
+    assertSameEvents("""
+        { "a": 1, "skip": { "b": [ 1, { "skip": 2 } ], "c": "}" }, "d": [ { "skip": [ 3 ], "e": 4 } ] }
+        """, "skip");
+  }
+
+  @Test
+  public void feedSkippedElements() {
+    var text = """
+        [ 1, [ 2, { "a": "]" } ], { "b": [ 3, 4 ] }, [ 5, 6 ] ]
+        """;
+    var expected = new EventVisitor(null, 1);
+    ToyJSONParser.parse(text, expected);
+    assertEquals(List.of("startArray null", "value null 1 Integer", "startObject null", "startArray b", "value null 3 Integer", "endArray b", "endObject null",
+        "startArray null", "value null 5 Integer", "endArray null", "endArray null"), expected.events);
+    var bytes = text.getBytes(StandardCharsets.UTF_8);
+    for (var chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+      var visitor = new EventVisitor(null, 1);
+      var parser = new JSONFeedParser(visitor);
+      for (var i = 0; i < bytes.length; i += chunkSize) {
+        parser.feed(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+      }
+      parser.endOfInput();
+      assertEquals(expected.events, visitor.events, "chunk size " + chunkSize);
+    }
+  }
+
+  @Test
+  public void feedWithAStringCache() {
+    var visitor = new EventVisitor(null);
+    var parser = new JSONFeedParser(visitor, new StringCache(16));
+    parser.feed(StandardCharsets.UTF_8.encode("[ \"a\", \"a\" ]"));
+    parser.endOfInput();
+    assertEquals(List.of("startArray null", "value null a String", "value null a String", "endArray null"), visitor.events);
+  }
+
+  @Test
+  public void feedEventsAreEmittedWhenTokensAreComplete() {
+    var visitor = new EventVisitor(null);
+    var parser = new JSONFeedParser(visitor);
+    parser.feed(StandardCharsets.UTF_8.encode("{ \"a\": \"hel"));
+    assertEquals(List.of("startObject null"), visitor.events);
+    parser.feed(StandardCharsets.UTF_8.encode("lo\", \"b\": 12"));
+    assertEquals(List.of("startObject null", "value a hello String"), visitor.events);
+    parser.feed(StandardCharsets.UTF_8.encode("3 }"));
+    assertEquals(List.of("startObject null", "value a hello String", "value b 123 Integer", "endObject null"), visitor.events);
+    parser.endOfInput();
+  }
+
+  @Test
+  public void feedInvalidTexts() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> feed("{ \"a\" 1 }", null, 1)),
+        () -> assertThrows(IllegalStateException.class, () -> feed("{ \"a\": 1, }", null, 1)),
+        () -> assertThrows(IllegalStateException.class, () -> feed("[ 1 }", null, 1)),
+        () -> assertThrows(IllegalStateException.class, () -> feed("[ nope ]", null, 1)),
+        () -> assertThrows(IllegalStateException.class, () -> feed("[ 1 ] [", null, 1)),
+        () -> assertThrows(IllegalStateException.class, () -> feed("1", null, 1))
+    );
+  }
+
+  @Test
+  public void feedTruncatedTexts() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> feed("{ \"a\": 1", null, 1)),
+        () -> assertThrows(IllegalStateException.class, () -> feed("[ \"abc", null, 1)),
+        () -> assertThrows(IllegalStateException.class, () -> feed("", null, 1))
+    );
+  }
+
+  @Test
+  public void feedTruncatedUTF8Sequence() {
+    var parser = new JSONFeedParser(new EventVisitor(null));
+    var bytes = "[ \"é".getBytes(StandardCharsets.UTF_8);
+    parser.feed(ByteBuffer.wrap(bytes, 0, bytes.length - 1));
+    assertThrows(IllegalStateException.class, parser::endOfInput);
+  }
+
+  @Test
+  public void feedAfterEndOfInput() {
+    var parser = new JSONFeedParser(new EventVisitor(null));
+    parser.feed(StandardCharsets.UTF_8.encode("[]"));
+    parser.endOfInput();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> parser.feed(ByteBuffer.allocate(0))),
+        () -> assertThrows(IllegalStateException.class, parser::endOfInput)
+    );
+  }
+
+  @Test
+  public void feedPreconditions() {
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> new JSONFeedParser(null)),
+        () -> assertThrows(NullPointerException.class, () -> new JSONFeedParser(new EventVisitor(null)).feed(null))
+    );
+  }
+}
@@ -0,0 +1,137 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JSONProjectionTest {
+  public record Price(double amount, String currency) { }
+
+  private static final String ORDER = """
+      {
+        "user": { "id": 42, "name": "Bob", "roles": [ "admin", "dev" ] },
+        "items": [
+          { "name": "pen", "price": { "amount": 1.5, "currency": "EUR" } },
+          { "name": "book", "price": { "amount": 12.25, "currency": "EUR" }, "tags": [ { "a/b": 1 } ] }
+        ],
+        "comment": "not used"
+      }
+      """;
+
+  private static JSONReader reader() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.Collector::record));
+    return reader;
+  }
+
+  @Test
+  public void parseScalars() {
+    var projection = reader().compileProjection(Map.of("/user/id", Integer.class, "/user/roles/1", String.class));
+    var result = projection.parse(ORDER);
+    assertAll(
+        () -> assertEquals(List.of(42), result.get("/user/id")),
+        () -> assertEquals(List.of("dev"), result.get("/user/roles/1"))
+    );
+  }
+
+  @Test
+  public void parseWildcardWithACollector() {
+    var projection = reader().compileProjection(Map.of("/items/*/price", Price.class));
+    var result = projection.parse(ORDER);
+    assertEquals(List.of(new Price(1.5, "EUR"), new Price(12.25, "EUR")), result.get("/items/*/price"));
+  }
+
+  @Test
+  public void parseEscapedSegmentAndNoMatch() {
+    var projection = reader().compileProjection(Map.<String, Type>of("/items/1/tags/0/a~1b", Integer.class, "/missing", String.class));
+    var result = projection.parse(ORDER);
+    assertAll(
+        () -> assertEquals(List.of(1), result.get("/items/1/tags/0/a~1b")),
+        () -> assertEquals(List.of(), result.get("/missing"))
+    );
+  }
+
+  @Test
+  public void parseRootPointer() {
+    var projection = reader().compileProjection(Map.of("", Price.class));
+    var result = projection.parse("""
+        { "amount": 3.0, "currency": "USD" }
+        """);
+    assertEquals(List.of(new Price(3.0, "USD")), result.get(""));
+  }
+
+  @Test
+  public void parseSkipsTheElementsThatDoNotMatch() {
+    var text = """
+        { "items": [ { "price": 3 }, { "pr\\qice": [ "]" ] } ] }
+        """;  // the key of the second element is not a valid string
+    var projection = reader().compileProjection(Map.of("/items/0/price", Long.class));
+    assertAll(
+        () -> assertEquals(List.of(3L), projection.parse(text).get("/items/0/price")),
+        () -> assertThrows(IllegalStateException.class, () -> reader().compileProjection(Map.of("/items/*/price", Long.class)).parse(text))
+    );
+  }
+
+  @Test
+  public void parseConvertsScalarsToTheTypeOfThePointer() {
+    var projection = reader().compileProjection(Map.<String, Type>of(
+        "/user/id", long.class, "/items/0/price/amount", Double.class, "/user/name", Object.class));
+    var result = projection.parse(ORDER);
+    assertAll(
+        () -> assertEquals(List.of(42L), result.get("/user/id")),
+        () -> assertEquals(List.of(1.5), result.get("/items/0/price/amount")),
+        () -> assertEquals(List.of("Bob"), result.get("/user/name"))
+    );
+  }
+
+  public enum Currency { EUR, USD }
+
+  @Test
+  public void parseConvertsScalarsLikeTheReader() {
+    var projection = reader().compileProjection(Map.<String, Type>of(
+        "/items/0/price/amount", float.class, "/user/id", short.class,
+        "/items/1/price/currency", Currency.class, "/items/0/price/currency", Object.class));
+    var result = projection.parse(ORDER);
+    assertAll(
+        () -> assertEquals(List.of(1.5f), result.get("/items/0/price/amount")),
+        () -> assertEquals(List.of((short) 42), result.get("/user/id")),
+        () -> assertEquals(List.of(Currency.EUR), result.get("/items/1/price/currency")),
+        () -> assertEquals(List.of("EUR"), result.get("/items/0/price/currency"))
+    );
+  }
+
+  @Test
+  public void parseScalarsOfTheWrongType() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> reader().compileProjection(Map.of("/user/id", String.class)).parse(ORDER)),
+        () -> assertThrows(IllegalStateException.class, () -> reader().compileProjection(Map.of("/user/name", Integer.class)).parse(ORDER)),
+        () -> assertThrows(IllegalStateException.class, () -> reader().compileProjection(Map.of("/id", int.class)).parse("{ \"id\": 12345678901 }")),
+        () -> assertThrows(IllegalStateException.class, () -> reader().compileProjection(Map.of("/id", int.class)).parse("{ \"id\": null }")),
+        () -> assertThrows(IllegalStateException.class, () -> reader().compileProjection(Map.of("/id", Currency.class)).parse("{ \"id\": \"GBP\" }")),
+        () -> assertThrows(IllegalStateException.class, () -> reader().compileProjection(Map.of("/id", byte.class)).parse("{ \"id\": 1000 }"))
+    );
+  }
+
+  @Test
+  public void parseOverlappingPointers() {
+    var projection = reader().compileProjection(Map.<String, Type>of("/user", Object.class, "/user/id", Integer.class));
+    assertThrows(IllegalStateException.class, () -> projection.parse(ORDER));
+  }
+
+  @Test
+  public void compileProjectionPreconditions() {
+    var reader = reader();
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> reader.compileProjection(null)),
+        () -> assertThrows(IllegalArgumentException.class, () -> reader.compileProjection(Map.of("user", Integer.class))),
+        () -> assertThrows(NullPointerException.class, () -> reader.compileProjection(Map.of()).parse(null))
+    );
+  }
+}
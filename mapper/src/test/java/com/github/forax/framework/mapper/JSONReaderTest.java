@@ -6,23 +6,28 @@ import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
+import static java.util.stream.Collectors.joining;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JSONReaderTest {
-  /*
   @Nested
   public class Q1 {
 
@@ -234,6 +239,53 @@ public class JSONReaderTest {
       );
     }
 
+    @SuppressWarnings("unused")
+    public static class Measure {
+      private int count;
+      private long timestamp;
+      private Integer boxed;
+
+      public void setCount(int count) {
+        this.count = count;
+      }
+      public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+      }
+      public void setBoxed(Integer boxed) {
+        this.boxed = boxed;
+      }
+    }
+
+    @Test @Tag("Q3")
+    public void collectorBeanPrimitivePopulater() {
+      var collector = JSONReader.Collector.bean(Measure.class);
+      var bean = collector.supplier().get();
+      collector.populater().populateInt(bean, "count", 3);
+      collector.populater().populateInt(bean, "timestamp", 42);
+      collector.populater().populateInt(bean, "boxed", 7);
+      var measure = (Measure) collector.finisher().apply(bean);
+      assertAll(
+          () -> assertEquals(3, measure.count),
+          () -> assertEquals(42L, measure.timestamp),
+          () -> assertEquals(7, measure.boxed)
+      );
+    }
+
+    @Test @Tag("Q3")
+    public void parseJSONLongValue() {
+      var reader = new JSONReader();
+      var measure = reader.parseJSON("""
+        {
+          "count": 12,
+          "timestamp": 1666170000000
+        }
+        """, Measure.class);
+      assertAll(
+          () -> assertEquals(12, measure.count),
+          () -> assertEquals(1666170000000L, measure.timestamp)
+      );
+    }
+
     @Test @Tag("Q3")
     public void collectorBeanPreconditions() {
       assertThrows(NullPointerException.class, () -> JSONReader.Collector.bean(null));
@@ -503,7 +555,28 @@ public class JSONReaderTest {
 
     @Test @Tag("Q7")
     public void collectorRecordPreconditions() {
-      assertThrows(NullPointerException.class, () -> JSONReader.Collector.record(null));
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> JSONReader.Collector.record(null)),
+          () -> assertThrows(IllegalArgumentException.class, () -> JSONReader.Collector.record(String.class))
+      );
+    }
+
+    @Test @Tag("Q7")
+    public void collectorRecordMissingComponents() {
+      var collector = JSONReader.Collector.record(Person.class);
+      var array = collector.supplier().get();
+      var person = (Person) collector.finisher().apply(array);
+      assertEquals(new Person(null, 0), person);
+    }
+
+    @Test @Tag("Q7")
+    public void collectorRecordUnknownKey() {
+      var collector = JSONReader.Collector.record(Person.class);
+      var array = collector.supplier().get();
+      assertAll(
+          () -> assertNull(collector.qualifier().apply("oops")),
+          () -> assertThrows(IllegalStateException.class, () -> collector.populater().populate(array, "oops", 3))
+      );
     }
 
     public record IntArrayBean(List<Integer> values) { }
@@ -538,5 +611,932 @@ public class JSONReaderTest {
     }
 
   }  // end of Q7
- */
-}
\ No newline at end of file
+
+
+  @Nested
+  public class ScalarConversions {
+    public record Counter(String name, int count, long total, double average) { }
+
+    @SuppressWarnings("unused")
+    public static class CounterBean {
+      private int count;
+      private long total;
+
+      public void setCount(int count) {
+        this.count = count;
+      }
+      public void setTotal(long total) {
+        this.total = total;
+      }
+    }
+
+    private static JSONReader reader(boolean speculative) {
+      var reader = new JSONReader();
+      reader.setSpeculativeKeyMatching(speculative);
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.Collector::record));
+      return reader;
+    }
+
+    @Test
+    public void parseJSONLongInLongAndDouble() {
+      for (var speculative : new boolean[] { false, true }) {
+        var counter = reader(speculative).parseJSON("""
+          { "name": "a", "count": 1, "total": 12345678901, "average": 12345678901 }
+          """, Counter.class);
+        assertEquals(new Counter("a", 1, 12345678901L, 12345678901.0), counter);
+      }
+    }
+
+    @Test
+    public void parseJSONLongInAnIntRecordComponent() {
+      for (var speculative : new boolean[] { false, true }) {
+        var exception = assertThrows(IllegalStateException.class, () -> reader(speculative).parseJSON("""
+          { "name": "a", "count": 12345678901 }
+          """, Counter.class));
+        var message = exception.getCause().getMessage();
+        assertAll(
+            () -> assertTrue(message.contains("count"), message),
+            () -> assertTrue(message.contains("int"), message)
+        );
+      }
+    }
+
+    @Test
+    public void parseJSONLongInAnIntBeanProperty() {
+      for (var speculative : new boolean[] { false, true }) {
+        var exception = assertThrows(IllegalStateException.class, () -> reader(speculative).parseJSON("""
+          { "count": 12345678901, "total": 1 }
+          """, CounterBean.class));
+        var message = exception.getCause().getMessage();
+        assertAll(
+            () -> assertTrue(message.contains("count"), message),
+            () -> assertTrue(message.contains("int"), message)
+        );
+      }
+    }
+    public enum Unit { KG, LB }
+
+    @SuppressWarnings("unused")
+    public static class Measure {
+      private Long id;
+      private Double ratio;
+      private double value;
+      private float precision;
+      private short level;
+      private Unit unit;
+      private char grade;
+      private Integer count;
+
+      public void setId(Long id) {
+        this.id = id;
+      }
+      public void setRatio(Double ratio) {
+        this.ratio = ratio;
+      }
+      public void setValue(double value) {
+        this.value = value;
+      }
+      public void setPrecision(float precision) {
+        this.precision = precision;
+      }
+      public void setLevel(short level) {
+        this.level = level;
+      }
+      public void setUnit(Unit unit) {
+        this.unit = unit;
+      }
+      public void setGrade(char grade) {
+        this.grade = grade;
+      }
+      public void setCount(Integer count) {
+        this.count = count;
+      }
+    }
+
+    @Test
+    public void parseJSONBeanWidensAndConvertsScalars() {
+      for (var speculative : new boolean[] { false, true }) {
+        var measure = reader(speculative).parseJSON("""
+          { "id": 3, "ratio": 2, "value": 12345678901, "precision": 0.5, "level": 7, "unit": "LB", "grade": "A", "count": null }
+          """, Measure.class);
+        assertAll(
+            () -> assertEquals(3L, measure.id),
+            () -> assertEquals(2.0, measure.ratio),
+            () -> assertEquals(12345678901.0, measure.value),
+            () -> assertEquals(0.5f, measure.precision),
+            () -> assertEquals((short) 7, measure.level),
+            () -> assertEquals(Unit.LB, measure.unit),
+            () -> assertEquals('A', measure.grade),
+            () -> assertNull(measure.count)
+        );
+      }
+    }
+
+    @Test
+    public void parseJSONBeanInvalidScalars() {
+      var reader = reader(false);
+      for (var text : List.of("{ \"count\": 1.5 }", "{ \"count\": \"1\" }", "{ \"value\": null }",
+                              "{ \"level\": 100000 }", "{ \"unit\": 1 }", "{ \"grade\": \"AB\" }")) {
+        var exception = assertThrows(IllegalStateException.class, () -> reader.parseJSON(text, Measure.class), text);
+        var key = text.substring(text.indexOf('"') + 1, text.indexOf('"', 3));
+        assertTrue(exception.getCause().getMessage().contains("key " + key), exception.getCause().getMessage());
+      }
+    }
+
+    public record Sample(Long id, Double ratio, float precision, int count, Unit unit, Integer boxed) { }
+
+    @Test
+    public void parseJSONRecordWidensAndConvertsScalars() {
+      for (var speculative : new boolean[] { false, true }) {
+        var sample = reader(speculative).parseJSON("""
+          { "id": 3, "ratio": 2, "precision": 0.25, "count": 4, "unit": "KG", "boxed": null }
+          """, Sample.class);
+        assertEquals(new Sample(3L, 2.0, 0.25f, 4, Unit.KG, null), sample);
+      }
+    }
+
+    @Test
+    public void parseJSONRecordInvalidScalars() {
+      var reader = reader(true);
+      for (var text : List.of("{ \"count\": null }", "{ \"count\": 1.5 }", "{ \"count\": \"1\" }",
+                              "{ \"ratio\": true }", "{ \"unit\": \"G\" }")) {
+        var exception = assertThrows(IllegalStateException.class, () -> reader.parseJSON(text, Sample.class), text);
+        var key = text.substring(text.indexOf('"') + 1, text.indexOf('"', 3));
+        assertTrue(exception.getCause().getMessage().contains(key), exception.getCause().getMessage());
+      }
+    }
+  }  // end of ScalarConversions
+
+
+  @Nested
+  public class PrimitiveCollectors {
+    public record Sensor(String name, double[] values, long[] timestamps) { }
+
+    @SuppressWarnings("unused")
+    public static class Samples {
+      private int[] counts;
+      private List<Integer> ids;
+
+      public void setCounts(int[] counts) {
+        this.counts = counts;
+      }
+      public void setIds(List<Integer> ids) {
+        this.ids = ids;
+      }
+    }
+
+    @Test
+    public void parseJSONPrimitiveArray() {
+      var reader = new JSONReader();
+      assertAll(
+          () -> assertArrayEquals(new int[] { 1, -5, 78 }, reader.parseJSON("[ 1, -5, 78 ]", int[].class)),
+          () -> assertArrayEquals(new long[] { 1, 1666170000000L }, reader.parseJSON("[ 1, 1666170000000 ]", long[].class)),
+          () -> assertArrayEquals(new double[] { 1, 2.5, -0.5 }, reader.parseJSON("[ 1, 2.5, -0.5 ]", double[].class)),
+          () -> assertArrayEquals(new int[0], reader.parseJSON("[]", int[].class))
+      );
+    }
+
+    @Test
+    public void parseJSONPrimitiveArrayInRecord() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.Collector::record));
+      var sensor = reader.parseJSON("""
+        {
+          "name": "temperature",
+          "values": [ 12.5, 13, 14.25 ],
+          "timestamps": [ 1666170000000, 1666170001000, 1666170002000 ]
+        }
+        """, Sensor.class);
+      assertAll(
+          () -> assertEquals("temperature", sensor.name),
+          () -> assertArrayEquals(new double[] { 12.5, 13, 14.25 }, sensor.values),
+          () -> assertArrayEquals(new long[] { 1666170000000L, 1666170001000L, 1666170002000L }, sensor.timestamps)
+      );
+    }
+
+    @Test
+    public void parseJSONPrimitiveArrayAndListInBean() {
+      var reader = new JSONReader();
+      var samples = reader.parseJSON("""
+        {
+          "counts": [ 3, 4 ],
+          "ids": [ 10, 20, 30 ]
+        }
+        """, Samples.class);
+      assertAll(
+          () -> assertArrayEquals(new int[] { 3, 4 }, samples.counts),
+          () -> assertEquals(List.of(10, 20, 30), samples.ids),
+          () -> assertThrows(UnsupportedOperationException.class, () -> samples.ids.add(40))
+      );
+    }
+
+    @Test
+    public void collectorPrimitiveArray() {
+      @SuppressWarnings("unchecked")
+      var collector = (JSONReader.Collector<Object>) JSONReader.Collector.primitiveArray(int.class);
+      var builder = collector.supplier().get();
+      for (var i = 0; i < 100; i++) {
+        collector.populater().populateInt(builder, null, i);
+      }
+      var array = (int[]) collector.finisher().apply(builder);
+      assertArrayEquals(IntStream.range(0, 100).toArray(), array);
+    }
+
+    @Test
+    public void parseJSONPrimitiveArrayInvalidValue() {
+      var reader = new JSONReader();
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("[ 1, 2.5 ]", int[].class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("[ 1, null ]", long[].class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("[ 1666170000000 ]", int[].class))
+      );
+    }
+
+    @Test
+    public void collectorPrimitivePreconditions() {
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> JSONReader.Collector.primitiveArray(null)),
+          () -> assertThrows(NullPointerException.class, () -> JSONReader.Collector.primitiveList(null)),
+          () -> assertThrows(IllegalArgumentException.class, () -> JSONReader.Collector.primitiveArray(boolean.class)),
+          () -> assertThrows(IllegalArgumentException.class, () -> JSONReader.Collector.primitiveList(String.class))
+      );
+    }
+  }  // end of PrimitiveCollectors
+
+
+  @Nested
+  public class UnknownKeys {
+    public record Person(String name, int age) { }
+
+    @SuppressWarnings("unused")
+    public static class Address {
+      private String zipCode;
+
+      public void setZipCode(String zipCode) {
+        this.zipCode = zipCode;
+      }
+    }
+
+    private static final String PERSON = """
+        {
+          "id": 3,
+          "name": "Ana",
+          "tags": [ "a", { "b": [ "]", "}" ] }, [] ],
+          "location": { "city": "Paris", "nested": { "quote": "a \\" b" } },
+          "comment": "{ not an object",
+          "age": 24,
+          "active": true,
+          "score": -12.5
+        }
+        """;
+
+    @Test
+    public void parseJSONRecordLenient() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.Collector::record));
+      reader.setUnknownKeyPolicy(JSONReader.UnknownKeyPolicy.LENIENT);
+      assertEquals(new Person("Ana", 24), reader.parseJSON(PERSON, Person.class));
+    }
+
+    @Test
+    public void parseJSONRecordStrict() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.Collector::record));
+      assertThrows(IllegalStateException.class, () -> reader.parseJSON(PERSON, Person.class));
+    }
+
+    @Test
+    public void parseJSONBeanLenient() {
+      var reader = new JSONReader();
+      reader.setUnknownKeyPolicy(JSONReader.UnknownKeyPolicy.LENIENT);
+      var address = reader.parseJSON("""
+        { "street": { "number": 12, "name": "rue de Rivoli" }, "zipCode": "75001", "country": "FR" }
+        """, Address.class);
+      assertEquals("75001", address.zipCode);
+    }
+
+    @Test
+    public void parseJSONBeanStrictUnknownObject() {
+      var reader = new JSONReader();
+      assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+        { "street": { "number": 12 }, "zipCode": "75001" }
+        """, Address.class));
+    }
+
+    @Test
+    public void parseJSONLenientUnterminatedValue() {
+      var reader = new JSONReader();
+      reader.setUnknownKeyPolicy(JSONReader.UnknownKeyPolicy.LENIENT);
+      assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+        { "zipCode": "75001", "street": { "number": [ 12 }
+        """, Address.class));
+    }
+
+    @Test
+    public void setUnknownKeyPolicyPrecondition() {
+      var reader = new JSONReader();
+      assertThrows(NullPointerException.class, () -> reader.setUnknownKeyPolicy(null));
+    }
+  }  // end of UnknownKeys
+
+
+  @Nested
+  public class StringDeduplication {
+    public enum Status { ACTIVE, SUSPENDED }
+
+    public record Account(String country, Status status) { }
+
+    @SuppressWarnings("unused")
+    public static class Member {
+      private String country;
+      private Status status;
+      private List<Status> history;
+
+      public void setCountry(String country) {
+        this.country = country;
+      }
+      public void setStatus(Status status) {
+        this.status = status;
+      }
+      public void setHistory(List<Status> history) {
+        this.history = history;
+      }
+    }
+
+    private static JSONReader.TypeMatcher listTypeMatcher() {
+      return type -> Optional.of(type)
+          .flatMap(t -> t instanceof ParameterizedType parameterizedType? Optional.of(parameterizedType): Optional.empty())
+          .filter(t -> t.getRawType() == List.class)
+          .map(t -> JSONReader.Collector.list(t.getActualTypeArguments()[0]));
+    }
+
+    @Test
+    public void parseJSONWithAStringCache() {
+      var reader = new JSONReader();
+      reader.setStringCache(new StringCache(64));
+      var member1 = reader.parseJSON("""
+        { "country": "FR" }
+        """, Member.class);
+      var member2 = reader.parseJSON("""
+        { "country": "FR" }
+        """, Member.class);
+      assertSame(member1.country, member2.country);
+    }
+
+    @Test
+    public void parseJSONEnumBean() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(listTypeMatcher());
+      var member = reader.parseJSON("""
+        { "status": "SUSPENDED", "history": [ "ACTIVE", "SUSPENDED" ] }
+        """, Member.class);
+      assertAll(
+          () -> assertEquals(Status.SUSPENDED, member.status),
+          () -> assertEquals(List.of(Status.ACTIVE, Status.SUSPENDED), member.history)
+      );
+    }
+
+    @Test
+    public void parseJSONEnumRecord() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.Collector::record));
+      var account = reader.parseJSON("""
+        { "country": "DE", "status": "ACTIVE" }
+        """, Account.class);
+      assertEquals(new Account("DE", Status.ACTIVE), account);
+    }
+
+    @Test
+    public void parseJSONUnknownEnumConstant() {
+      var reader = new JSONReader();
+      assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+        { "status": "DELETED" }
+        """, Member.class));
+    }
+
+    @Test
+    public void setStringCachePrecondition() {
+      var reader = new JSONReader();
+      assertThrows(NullPointerException.class, () -> reader.setStringCache(null));
+    }
+  }  // end of StringDeduplication
+
+  @Nested
+  public class SpeculativeKeyMatching {
+    public record Point(int x, int y, String label) { }
+
+    @SuppressWarnings("unused")
+    public static class Box {
+      private int height;
+      private Point origin;
+      private int width;
+
+      public void setHeight(int height) {
+        this.height = height;
+      }
+      public void setOrigin(Point origin) {
+        this.origin = origin;
+      }
+      public void setWidth(int width) {
+        this.width = width;
+      }
+    }
+
+    @SuppressWarnings("unused")
+    public static class Person {
+      private String name;
+      private int age;
+
+      public void setAge(int age) {
+        this.age = age;
+      }
+      public void setName(String name) {
+        this.name = name;
+      }
+    }
+
+    private static JSONReader reader() {
+      var reader = new JSONReader();
+      reader.setSpeculativeKeyMatching(true);
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.Collector::record));
+      return reader;
+    }
+
+    @Test
+    public void parseJSONKeysInOrder() {
+      var point = reader().parseJSON("""
+        { "x": 1, "y": 2, "label": "a" }
+        """, Point.class);
+      assertEquals(new Point(1, 2, "a"), point);
+    }
+
+    @Test
+    public void parseJSONBeanKeysInFieldDeclarationOrder() {
+      var person = reader().parseJSON("""
+          { "name": "Ana", "age": 32 }
+          """, Person.class);
+      assertAll(
+          () -> assertEquals("Ana", person.name),
+          () -> assertEquals(32, person.age)
+      );
+    }
+
+    @Test
+    public void parseJSONBeanKeysOutOfOrderAndMissing() {
+      var reader = reader();
+      var person = reader.parseJSON("""
+          { "age": 32, "name": "Ana" }
+          """, Person.class);
+      var partial = reader.parseJSON("""
+          { "age": 18 }
+          """, Person.class);
+      assertAll(
+          () -> assertEquals("Ana", person.name),
+          () -> assertEquals(32, person.age),
+          () -> assertNull(partial.name),
+          () -> assertEquals(18, partial.age)
+      );
+    }
+
+    @Test
+    public void parseJSONExtraKeysLenient() {
+      var reader = reader();
+      reader.setUnknownKeyPolicy(JSONReader.UnknownKeyPolicy.LENIENT);
+      var person = reader.parseJSON("""
+          { "id": 1, "name": "Ana", "nickname": "A", "age": 32, "tags": [ "x" ] }
+          """, Person.class);
+      var point = reader.parseJSON("""
+          { "x": 1, "z": 0, "label": "c", "y": 2, "w": { "x": 3 } }
+          """, Point.class);
+      assertAll(
+          () -> assertEquals("Ana", person.name),
+          () -> assertEquals(32, person.age),
+          () -> assertEquals(new Point(1, 2, "c"), point)
+      );
+    }
+
+    @Test
+    public void parseJSONSameResultWithAndWithoutSpeculation() {
+      var text = """
+          [ { "x": 1, "y": 2, "label": "a" }, { "label": "b", "x": 3 }, { "y": 4 }, { "y": 5, "x": 6, "label": "c" } ]
+          """;
+      var type = new JSONReader.TypeReference<List<Point>>() {};
+      var speculative = reader();
+      var plain = reader();
+      plain.setSpeculativeKeyMatching(false);
+      for (var reader : List.of(speculative, plain)) {
+        reader.addTypeMatcher(t -> Optional.of(t)
+            .flatMap(u -> u instanceof ParameterizedType parameterizedType ? Optional.of(parameterizedType) : Optional.empty())
+            .filter(u -> u.getRawType() == List.class)
+            .map(u -> JSONReader.Collector.list(u.getActualTypeArguments()[0])));
+      }
+      assertEquals(plain.parseJSON(text, type), speculative.parseJSON(text, type));
+      assertEquals(List.of(new Point(1, 2, "a"), new Point(3, 0, "b"), new Point(0, 4, null), new Point(6, 5, "c")),
+          speculative.parseJSON(text, type));
+    }
+
+    @Test
+    public void parseJSONKeysOutOfOrder() {
+      var point = reader().parseJSON("""
+        { "label": "b", "y": 4, "x": 3 }
+        """, Point.class);
+      assertEquals(new Point(3, 4, "b"), point);
+    }
+
+    @Test
+    public void parseJSONMissingKeys() {
+      var point = reader().parseJSON("""
+        { "y": 5 }
+        """, Point.class);
+      assertEquals(new Point(0, 5, null), point);
+    }
+
+    @Test
+    public void parseJSONBeanWithANestedRecord() {
+      var box = reader().parseJSON("""
+        { "height": 10, "origin": { "x": 1, "y": 2, "label": "o" }, "width": 20 }
+        """, Box.class);
+      assertAll(
+          () -> assertEquals(10, box.height),
+          () -> assertEquals(new Point(1, 2, "o"), box.origin),
+          () -> assertEquals(20, box.width)
+      );
+    }
+
+    @Test
+    public void parseJSONUnknownKey() {
+      assertThrows(IllegalStateException.class, () -> reader().parseJSON("""
+        { "x": 1, "z": 2 }
+        """, Point.class));
+    }
+
+    @Test
+    public void parseJSONUnknownKeyLenient() {
+      var reader = reader();
+      reader.setUnknownKeyPolicy(JSONReader.UnknownKeyPolicy.LENIENT);
+      var point = reader.parseJSON("""
+        { "x": 1, "z": { "x": 0 }, "y": 2, "label": "c" }
+        """, Point.class);
+      assertEquals(new Point(1, 2, "c"), point);
+    }
+
+    @Test
+    public void parseJSONSameKeyTwice() {
+      var point = reader().parseJSON("""
+        { "x": 1, "x": 7 }
+        """, Point.class);
+      assertEquals(new Point(7, 0, null), point);
+    }
+  }  // end of SpeculativeKeyMatching
+
+  @Nested
+  public class ParseInto {
+    @SuppressWarnings("unused")
+    public static class Settings {
+      private String name;
+      private int version;
+      private Settings parent;
+      private List<String> tags = new ArrayList<>();
+
+      public String getName() {
+        return name;
+      }
+      public void setName(String name) {
+        this.name = name;
+      }
+      public int getVersion() {
+        return version;
+      }
+      public void setVersion(int version) {
+        this.version = version;
+      }
+      public Settings getParent() {
+        return parent;
+      }
+      public void setParent(Settings parent) {
+        this.parent = parent;
+      }
+      public List<String> getTags() {
+        return tags;
+      }
+      public void setTags(List<String> tags) {
+        this.tags = tags;
+      }
+    }
+
+    private static JSONReader reader() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(type)
+          .flatMap(t -> t instanceof ParameterizedType parameterizedType? Optional.of(parameterizedType): Optional.empty())
+          .filter(t -> t.getRawType() == List.class)
+          .map(t -> JSONReader.Collector.list(t.getActualTypeArguments()[0])));
+      return reader;
+    }
+
+    @Test
+    public void parseIntoKeepsMissingProperties() {
+      var settings = new Settings();
+      settings.setName("old");
+      settings.setVersion(1);
+      var result = reader().parseInto("""
+        { "version": 2 }
+        """, settings);
+      assertAll(
+          () -> assertSame(settings, result),
+          () -> assertEquals("old", settings.getName()),
+          () -> assertEquals(2, settings.getVersion())
+      );
+    }
+
+    @Test
+    public void parseIntoReusesNestedBean() {
+      var parent = new Settings();
+      parent.setName("parent");
+      var settings = new Settings();
+      settings.setParent(parent);
+      reader().parseInto("""
+        { "parent": { "version": 3 } }
+        """, settings);
+      assertAll(
+          () -> assertSame(parent, settings.getParent()),
+          () -> assertEquals("parent", parent.getName()),
+          () -> assertEquals(3, parent.getVersion())
+      );
+    }
+
+    @Test
+    public void parseIntoCreatesMissingNestedBean() {
+      var settings = new Settings();
+      reader().parseInto("""
+        { "parent": { "name": "created" } }
+        """, settings);
+      assertEquals("created", settings.getParent().getName());
+    }
+
+    @Test
+    public void parseIntoReusesMutableList() {
+      var settings = new Settings();
+      var tags = settings.getTags();
+      tags.add("old");
+      reader().parseInto("""
+        { "tags": [ "a", "b" ] }
+        """, settings);
+      assertAll(
+          () -> assertSame(tags, settings.getTags()),
+          () -> assertEquals(List.of("a", "b"), tags)
+      );
+    }
+
+    @Test
+    public void parseIntoReplacesImmutableList() {
+      var settings = new Settings();
+      settings.setTags(List.of("old"));
+      reader().parseInto("""
+        { "tags": [ "a" ] }
+        """, settings);
+      assertEquals(List.of("a"), settings.getTags());
+    }
+
+    @Test
+    public void parseIntoArray() {
+      assertThrows(IllegalStateException.class, () -> reader().parseInto("""
+        [ 1, 2 ]
+        """, new Settings()));
+    }
+
+    @Test
+    public void parseIntoPreconditions() {
+      var reader = reader();
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> reader.parseInto(null, new Settings())),
+          () -> assertThrows(NullPointerException.class, () -> reader.parseInto("{}", null))
+      );
+    }
+  }  // end of ParseInto
+
+  @Nested
+  public class ParallelArrays {
+    public record Point(int x, int y, String label) { }
+    public record Path(List<Point> points) { }
+
+    private static JSONReader reader() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.Collector::record));
+      return reader;
+    }
+
+    @Test
+    public void parseJSONArrayInParallel() {
+      var text = IntStream.range(0, 1_000)
+          .mapToObj(i -> "{ \"x\": " + i + ", \"y\": " + (-i) + ", \"label\": \"[" + i + "],{\" }")
+          .collect(joining(",\n", "[\n", "\n]"));
+      var points = reader().parseJSONArrayInParallel(text, Point.class);
+      assertEquals(IntStream.range(0, 1_000).mapToObj(i -> new Point(i, -i, "[" + i + "],{")).toList(), points);
+    }
+
+    @Test
+    public void parseJSONArrayInParallelNestedLists() {
+      var reader = reader();
+      reader.addTypeMatcher(type -> Optional.of(type)
+          .flatMap(t -> t instanceof ParameterizedType parameterizedType? Optional.of(parameterizedType): Optional.empty())
+          .filter(t -> t.getRawType() == List.class)
+          .map(t -> JSONReader.Collector.list(t.getActualTypeArguments()[0])));
+      var paths = reader.parseJSONArrayInParallel("""
+          [ { "points": [ { "x": 1 }, { "y": 2 } ] }, { "points": [] } ]
+          """, Path.class);
+      assertEquals(List.of(new Path(List.of(new Point(1, 0, null), new Point(0, 2, null))), new Path(List.of())), paths);
+    }
+
+    @Test
+    public void parseJSONArrayInParallelEmpty() {
+      assertEquals(List.of(), reader().parseJSONArrayInParallel(" [ ] ", Point.class));
+    }
+
+    @Test
+    public void parseJSONArrayInParallelInvalid() {
+      var reader = reader();
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSONArrayInParallel("{ }", Point.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSONArrayInParallel("[ { \"x\": 1 }, ]", Point.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSONArrayInParallel("[ { \"x\": 1 }", Point.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSONArrayInParallel("[ 1, 2 ]", Point.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSONArrayInParallel("[ { \"x\": 1 } ] garbage", Point.class)),
+          () -> assertThrows(NullPointerException.class, () -> reader.parseJSONArrayInParallel(null, Point.class)),
+          () -> assertThrows(NullPointerException.class, () -> reader.parseJSONArrayInParallel("[]", (Class<?>) null))
+      );
+    }
+  }  // end of ParallelArrays
+
+  @Nested
+  public class Contexts {
+    public record Point(int x, int y) { }
+
+    private static JSONReader reader() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.Collector::record));
+      return reader;
+    }
+
+    @Test
+    public void parseJSONWithAContext() {
+      var context = reader().newContext();
+      for (var i = 0; i < 10; i++) {
+        assertEquals(new Point(i, -i), context.parseJSON("{ \"x\": " + i + ", \"y\": " + (-i) + " }", Point.class));
+      }
+    }
+
+    @Test
+    public void parseJSONWithAContextAfterAnError() {
+      var context = reader().newContext();
+      assertThrows(IllegalStateException.class, () -> context.parseJSON("{ \"x\": 1, \"z\": 2 }", Point.class));
+      assertEquals(new Point(3, 4), context.parseJSON("{ \"x\": 3, \"y\": 4 }", Point.class));
+    }
+
+    @Test
+    public void parseJSONWithAContextUsesTheCurrentConfiguration() {
+      var reader = reader();
+      var context = reader.newContext();
+      assertThrows(IllegalStateException.class, () -> context.parseJSON("{ \"x\": 1, \"z\": 2 }", Point.class));
+      reader.setUnknownKeyPolicy(JSONReader.UnknownKeyPolicy.LENIENT);
+      assertEquals(new Point(1, 0), context.parseJSON("{ \"x\": 1, \"z\": 2 }", Point.class));
+    }
+
+    @Test
+    public void parseJSONWithAContextReentrant() {
+      var reader = new JSONReader();
+      var context = reader.newContext();
+      reader.addTypeMatcher(type -> Optional.of(type)
+          .filter(t -> t == Point.class)
+          .map(t -> new JSONReader.Collector<>(key -> Object.class, Object::new, (o, key, value) -> {},
+              o -> context.parseJSON("{ \"x\": 1, \"y\": 2 }", Point.class))));
+      assertThrows(IllegalStateException.class, () -> context.parseJSON("{}", Point.class));
+    }
+
+    @Test
+    public void parseJSONCollectorCallingTheReader() {
+      var reader = reader();
+      reader.addTypeMatcher(type -> Optional.of(type)
+          .filter(t -> t == String.class)
+          .map(t -> new JSONReader.Collector<>(key -> Object.class, Object::new, (o, key, value) -> {},
+              o -> reader.parseJSON("{ \"x\": 1, \"y\": 2 }", Point.class).toString())));
+      assertEquals(new Point(1, 2).toString(), reader.parseJSON("{}", String.class));
+    }
+
+    @Test
+    public void parseJSONFromSeveralThreads() throws InterruptedException {
+      var reader = reader();
+      var errors = new AtomicInteger();
+      var threads = IntStream.range(0, 8)
+          .mapToObj(t -> new Thread(() -> {
+            for (var i = 0; i < 1_000; i++) {
+              var point = reader.parseJSON("{ \"x\": " + t + ", \"y\": " + i + " }", Point.class);
+              if (!point.equals(new Point(t, i))) {
+                errors.incrementAndGet();
+              }
+            }
+          }))
+          .toList();
+      threads.forEach(Thread::start);
+      for (var thread : threads) {
+        thread.join();
+      }
+      assertEquals(0, errors.get());
+    }
+
+    @Test
+    public void parseJSONWithAContextPreconditions() {
+      var context = reader().newContext();
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> context.parseJSON(null, Point.class)),
+          () -> assertThrows(NullPointerException.class, () -> context.parseJSON("{}", (Class<?>) null)),
+          () -> assertThrows(NullPointerException.class, () -> context.parseJSON("{}", (Type) null)),
+          () -> assertThrows(NullPointerException.class, () -> context.parseJSON("{}", (JSONReader.TypeReference<?>) null))
+      );
+    }
+  }  // end of Contexts
+
+  @Nested
+  public class SealedHierarchies {
+    public sealed interface Shape permits Circle, Square, Polygon { }
+    public record Circle(double radius) implements Shape { }
+    public record Square(int side) implements Shape { }
+    public sealed interface Polygon extends Shape permits Triangle { }
+    public record Triangle() implements Polygon { }
+    public record Drawing(String name, List<Shape> shapes) { }
+
+    private static JSONReader reader() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(type)
+          .flatMap(t -> t instanceof ParameterizedType parameterizedType? Optional.of(parameterizedType): Optional.empty())
+          .filter(t -> t.getRawType() == List.class)
+          .map(t -> JSONReader.Collector.list(t.getActualTypeArguments()[0])));
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.Collector::record));
+      reader.addTypeMatcher(type -> Optional.of(type).filter(t -> t == Shape.class).map(t -> JSONReader.Collector.sealed(Shape.class, "kind")));
+      return reader;
+    }
+
+    @Test
+    public void parseJSONWithADiscriminator() {
+      var drawing = reader().parseJSON("""
+          { "name": "d", "shapes": [ { "kind": "Circle", "radius": 1.5 }, { "kind": "Square", "side": 2 }, { "kind": "Triangle" } ] }
+          """, Drawing.class);
+      assertEquals(new Drawing("d", List.of(new Circle(1.5), new Square(2), new Triangle())), drawing);
+    }
+
+    @Test
+    public void parseJSONRoundTrip() {
+      var writer = new JSONWriter();
+      writer.configureSealed(Shape.class, "kind");
+      var reader = reader();
+      reader.setSpeculativeKeyMatching(true);
+      for (var shape : List.of(new Square(3), new Circle(0.5), new Triangle())) {
+        assertEquals(shape, reader.parseJSON(writer.toJSON(shape), Shape.class));
+      }
+    }
+
+    @Test
+    public void parseJSONDiscriminatorNotFirst() {
+      assertThrows(IllegalStateException.class, () -> reader().parseJSON("""
+          [ { "radius": 1.5, "kind": "Circle" } ]
+          """, new JSONReader.TypeReference<List<Shape>>() {}));
+    }
+
+    @Test
+    public void parseJSONUnknownDiscriminator() {
+      assertThrows(IllegalStateException.class, () -> reader().parseJSON("""
+          [ { "kind": "Hexagon" } ]
+          """, new JSONReader.TypeReference<List<Shape>>() {}));
+    }
+
+    @Test
+    public void parseJSONNoDiscriminator() {
+      assertThrows(IllegalStateException.class, () -> reader().parseJSON("""
+          [ { } ]
+          """, new JSONReader.TypeReference<List<Shape>>() {}));
+    }
+
+    public sealed interface Node permits Left, Right { }
+    public sealed interface Left extends Node permits Leaf { }
+    public sealed interface Right extends Node permits Leaf { }
+    public record Leaf(int value) implements Left, Right { }
+
+    @Test
+    public void parseJSONWithADiamond() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.Collector::record));
+      reader.addTypeMatcher(type -> Optional.of(type).filter(t -> t == Node.class).map(t -> JSONReader.Collector.sealed(Node.class, "kind")));
+      assertEquals(new Leaf(3), reader.parseJSON("""
+          { "kind": "Leaf", "value": 3 }
+          """, Node.class));
+    }
+
+    @Test
+    public void sealedPreconditions() {
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class, () -> JSONReader.Collector.sealed(String.class, "kind")),
+          () -> assertThrows(NullPointerException.class, () -> JSONReader.Collector.sealed(null, "kind")),
+          () -> assertThrows(NullPointerException.class, () -> JSONReader.Collector.sealed(Shape.class, null))
+      );
+    }
+  }  // end of SealedHierarchies
+}
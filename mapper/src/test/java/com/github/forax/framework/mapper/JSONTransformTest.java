@@ -0,0 +1,125 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JSONTransformTest {
+  private static final String USER = """
+      {
+        "id": 42,
+        "name": "Bob \\"the builder\\"",
+        "password": "secret",
+        "scores": [ 1, -2, 3.5, null ],
+        "address": { "id": 7, "city": "Paris", "password": { "hash": [ 1, 2 ] } }
+      }
+      """;
+
+  @Test
+  public void identity() {
+    assertEquals("""
+        {"id": 42, "name": "Bob \\"the builder\\"", "password": "secret", "scores": [1, -2, 3.5, null], \
+        "address": {"id": 7, "city": "Paris", "password": {"hash": [1, 2]}}}""",
+        JSONTransform.identity().transform(USER));
+  }
+
+  @Test
+  public void identityRoundTripOfLargeAndSmallDoubles() {
+    var text = JSONTransform.identity().transform("""
+        { "large": 12345678901.5, "small": 0.0000001, "negative": -3e20 }
+        """);
+    assertAll(
+        () -> assertEquals("""
+            {"large": 1.23456789015E10, "small": 1.0E-7, "negative": -3.0E20}""", text),
+        () -> assertEquals(text, JSONTransform.identity().transform(text))
+    );
+  }
+
+  @Test
+  public void drop() {
+    assertEquals("""
+        {"id": 42, "name": "Bob \\"the builder\\"", "scores": [1, -2, 3.5, null], "address": {"id": 7, "city": "Paris"}}""",
+        JSONTransform.identity().drop("password").transform(USER));
+  }
+
+  @Test
+  public void keep() {
+    assertEquals("""
+        {"id": 42, "address": {"id": 7, "city": "Paris", "password": {"hash": [1, 2]}}}""",
+        JSONTransform.identity().keep("id", "address").transform(USER));
+  }
+
+  @Test
+  public void rename() {
+    assertEquals("""
+        {"userId": 42, "address": {"userId": 7, "town": "Paris"}}""",
+        JSONTransform.identity()
+            .keep("id", "address")
+            .drop("password")
+            .rename(Map.of("id", "userId", "city", "town"))
+            .transform(USER));
+  }
+
+  @Test
+  public void filterValues() {
+    assertEquals("""
+        {"scores": [1, 3.5]}""",
+        JSONTransform.identity()
+            .keep("scores")
+            .filterValues((key, value) -> value instanceof Number n && n.doubleValue() > 0)
+            .transform(USER));
+  }
+
+  @Test
+  public void andThen() {
+    var first = JSONTransform.identity().rename("a", "b");
+    var second = JSONTransform.identity().rename("b", "c");
+    assertAll(
+        () -> assertEquals("{\"c\": 1}", first.andThen(second).transform("{ \"a\": 1 }")),
+        () -> assertEquals("{\"b\": 1}", second.andThen(first).transform("{ \"a\": 1 }"))
+    );
+  }
+
+  @Test
+  public void transformIsImmutable() {
+    var identity = JSONTransform.identity();
+    identity.drop("a");
+    assertEquals("{\"a\": 1}", identity.transform("{ \"a\": 1 }"));
+  }
+
+  @Test
+  public void transformEscapedStrings() {
+    assertEquals("[\"a\\nb\", \"\\u0001\", \"\\\\\"]", JSONTransform.identity().transform("""
+        [ "a\\nb", "\\u0001", "\\\\" ]
+        """));
+  }
+
+  @Test
+  public void transformWithAFeedParser() {
+    var builder = new StringBuilder();
+    var transform = JSONTransform.identity().drop("password");
+    var parser = new JSONFeedParser(transform.visitor(new JSONStreamWriter(builder)));
+    parser.feed(StandardCharsets.UTF_8.encode("{ \"user\": \"bob\", \"pass"));
+    parser.feed(StandardCharsets.UTF_8.encode("word\": [ 1, 2 ] }"));
+    parser.endOfInput();
+    assertEquals("{\"user\": \"bob\"}", builder.toString());
+  }
+
+  @Test
+  public void transformPreconditions() {
+    var identity = JSONTransform.identity();
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> identity.transform(null)),
+        () -> assertThrows(NullPointerException.class, () -> identity.transform("{}", null)),
+        () -> assertThrows(NullPointerException.class, () -> identity.drop((String) null)),
+        () -> assertThrows(NullPointerException.class, () -> identity.rename(null, "a")),
+        () -> assertThrows(NullPointerException.class, () -> identity.filterValues(null)),
+        () -> assertThrows(NullPointerException.class, () -> identity.andThen(null))
+    );
+  }
+}
@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.MonthDay;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -253,4 +254,83 @@ public class JSONWriterTest {
 
   }  // end of Q7
 
+  @Nested
+  public class SealedHierarchies {
+    public sealed interface Shape permits Circle, Square, Polygon { }
+    public record Circle(double radius) implements Shape { }
+    public record Square(int side) implements Shape { }
+    public sealed interface Polygon extends Shape permits Triangle { }
+    public record Triangle() implements Polygon { }
+
+    @Test
+    public void toJSONWithADiscriminator() {
+      var writer = new JSONWriter();
+      writer.configureSealed(Shape.class, "kind");
+      assertAll(
+          () -> assertEquals("""
+              {"kind": "Circle", "radius": 1.5}\
+              """, writer.toJSON(new Circle(1.5))),
+          () -> assertEquals("""
+              {"kind": "Square", "side": 2}\
+              """, writer.toJSON(new Square(2))),
+          () -> assertEquals("""
+              {"kind": "Triangle"}\
+              """, writer.toJSON(new Triangle()))
+      );
+    }
+
+    @Test
+    public void configureSealedTwice() {
+      var writer = new JSONWriter();
+      writer.configureSealed(Polygon.class, "kind");
+      assertThrows(IllegalStateException.class, () -> writer.configureSealed(Shape.class, "kind"));
+    }
+
+    public sealed interface Node permits Left, Right { }
+    public sealed interface Left extends Node permits Leaf { }
+    public sealed interface Right extends Node permits Leaf { }
+    public record Leaf(int value) implements Left, Right { }
+
+    @Test
+    public void configureSealedWithADiamond() {
+      var writer = new JSONWriter();
+      writer.configureSealed(Node.class, "kind");
+      assertAll(
+          () -> assertEquals(List.of(Leaf.class), Utils.permittedSubclasses(Node.class)),
+          () -> assertEquals("""
+              {"kind": "Leaf", "value": 3}\
+              """, writer.toJSON(new Leaf(3)))
+      );
+    }
+
+    public sealed interface Pet permits Dogs.Puppy, Cats.Puppy { }
+    public static class Dogs {
+      public record Puppy(String name) implements Pet { }
+    }
+    public static class Cats {
+      public record Puppy(String name) implements Pet { }
+    }
+
+    @Test
+    public void configureSealedWithTwoSubclassesOfTheSameName() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class, () -> writer.configureSealed(Pet.class, "kind")),
+          () -> assertThrows(IllegalArgumentException.class, () -> JSONReader.Collector.sealed(Pet.class, "kind"))
+      );
+      // no subclass was configured by the failed call
+      writer.configure(Dogs.Puppy.class, puppy -> "\"" + puppy.name() + "\"");
+      assertEquals("\"rex\"", writer.toJSON(new Dogs.Puppy("rex")));
+    }
+
+    @Test
+    public void configureSealedPreconditions() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class, () -> writer.configureSealed(String.class, "kind")),
+          () -> assertThrows(NullPointerException.class, () -> writer.configureSealed(null, "kind")),
+          () -> assertThrows(NullPointerException.class, () -> writer.configureSealed(Shape.class, null))
+      );
+    }
+  }  // end of SealedHierarchies
 }
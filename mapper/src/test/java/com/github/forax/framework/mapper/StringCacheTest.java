@@ -0,0 +1,58 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StringCacheTest {
+  @Test
+  public void getSubstring() {
+    var cache = new StringCache(16);
+    var text = "FR, DE, FR";
+    var fr1 = cache.get(text, 0, 2);
+    var de = cache.get(text, 4, 6);
+    var fr2 = cache.get(text, 8, 10);
+    assertAll(
+        () -> assertEquals("FR", fr1),
+        () -> assertEquals("DE", de),
+        () -> assertSame(fr1, fr2)
+    );
+  }
+
+  @Test
+  public void getString() {
+    var cache = new StringCache(16);
+    var ok1 = cache.get(new String("OK"));
+    var ok2 = cache.get(new String("OK"));
+    assertSame(ok1, ok2);
+  }
+
+  @Test
+  public void getLongStringIsNotCached() {
+    var cache = new StringCache(16);
+    var text = "[" + "x".repeat(StringCache.MAX_LENGTH + 1) + "]";
+    assertNotSame(cache.get(text, 1, text.length() - 1), cache.get(text, 1, text.length() - 1));
+  }
+
+  @Test
+  public void getCollision() {
+    var cache = new StringCache(1);
+    assertAll(
+        () -> assertEquals("a", cache.get("a")),
+        () -> assertEquals("b", cache.get("b")),
+        () -> assertEquals("a", cache.get("ab", 0, 1))
+    );
+  }
+
+  @Test
+  public void capacityPrecondition() {
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class, () -> new StringCache(0)),
+        () -> assertThrows(IllegalArgumentException.class, () -> new StringCache(-1))
+    );
+  }
+}
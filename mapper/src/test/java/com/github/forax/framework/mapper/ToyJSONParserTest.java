@@ -12,6 +12,8 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ToyJSONParserTest {
   private static Object asJava(String text) {
@@ -137,10 +139,172 @@ class ToyJSONParserTest {
     );
   }
 
+  @Test
+  public void parseNumbersWithAnExponent() {
+    assertEquals(List.of(1.0E10, -2.5E-3, 100.0, 1.0E-7, 3.0E20, 42), asJava("""
+        [ 1.0E10, -2.5e-3, 1E+2, 1.0E-7, 3e20, 42 ]
+        """));
+  }
+
   @Test
   public void parseArraysWithNull() {
     assertEquals(Arrays.asList(13.4, null), asJava("""
         [ 13.4, null ]
         """));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void parseSkipValues() {
+    var keys = new ArrayList<String>();
+    ToyJSONParser.parse("""
+        { "a": 1, "skip1": { "b": [ 2, "}" ] }, "c": "d", "skip2": [ [], {} ], "skip3": 3.5, "e": null }
+        """, new JSONVisitor() {
+      @Override
+      public boolean acceptKey(String key) {
+        return !key.startsWith("skip");
+      }
+
+      @Override
+      public void value(String key, Object value) {
+        keys.add(key);
+      }
+
+      @Override
+      public void startObject(String key) {
+        keys.add("startObject " + key);
+      }
+
+      @Override
+      public void endObject(String key) {
+        keys.add("endObject " + key);
+      }
+
+      @Override
+      public void startArray(String key) {
+        throw new AssertionError();
+      }
+
+      @Override
+      public void endArray(String key) {
+        throw new AssertionError();
+      }
+    });
+    assertEquals(List.of("startObject null", "a", "c", "e", "endObject null"), keys);
+  }
+
+  @Test
+  public void parseSkipElements() {
+    var values = new ArrayList<Object>();
+    ToyJSONParser.parse("""
+        [ 1, { "a": [ 2, "]" ] }, "b", [ [], {} ], 3.5, null, 4 ]
+        """, new JSONVisitor() {
+      @Override
+      public boolean acceptIndex(int index) {
+        return index % 2 == 0;
+      }
+
+      @Override
+      public void value(String key, Object value) {
+        values.add(value);
+      }
+
+      @Override
+      public void startObject(String key) {
+        throw new AssertionError();
+      }
+
+      @Override
+      public void endObject(String key) {
+        throw new AssertionError();
+      }
+
+      @Override
+      public void startArray(String key) {
+        values.add("startArray");
+      }
+
+      @Override
+      public void endArray(String key) {
+        values.add("endArray");
+      }
+    });
+    assertEquals(List.of("startArray", 1, "b", 3.5, 4, "endArray"), values);
+  }
+
+  @Test
+  public void parseEscapedStrings() {
+    assertAll(
+        () -> assertEquals(Map.of("quote \"", "a\\b/c"), asJava("""
+            { "quote \\"": "a\\\\b\\/c" }
+            """)),
+        () -> assertEquals(List.of("line\nfeed\ttab\r\b\f"), asJava("""
+            [ "line\\nfeed\\ttab\\r\\b\\f" ]
+            """)),
+        () -> assertEquals(List.of("café 😀"), asJava("""
+            [ "caf\\u00E9 \\ud83d\\ude00" ]
+            """))
+    );
+  }
+
+  @Test
+  public void decodeStringWithoutEscapeIsNotCopied() {
+    var text = "hello world";
+    assertSame(text, ToyJSONParser.decodeString(text, 0, text.length()));
+  }
+
+  @Test
+  public void decodeStringInsideAText() {
+    var text = "[ \"a\\tb\\u00e9c\\\"\", 1 ]";
+    assertAll(
+        () -> assertEquals("a\tbéc\"", ToyJSONParser.decodeString(text, 3, text.indexOf("\",", 3))),
+        () -> assertEquals("b", ToyJSONParser.decodeString(text, 6, 7))
+    );
+  }
+
+  @Test
+  public void decodeStringInvalidEscapes() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.decodeString("\\x", 0, 2)),
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.decodeString("\\u12", 0, 4)),
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.decodeString("\\u12G4", 0, 6)),
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.decodeString("\"\\u12\"", 1, 4)),
+        () -> assertEquals("invalid escape sequence \\x at 3", assertThrows(IllegalStateException.class,
+            () -> ToyJSONParser.decodeString("[ \"\\x\" ]", 3, 5)).getMessage())
+    );
+  }
+
+  @Test
+  public void arrayElements() {
+    var text = "[ {\"a\": [1, 2]}, \"x,]\\\"\" , [] ]";
+    var boundaries = ToyJSONParser.arrayElements(text);
+    assertAll(
+        () -> assertEquals(6, boundaries.length),
+        () -> assertEquals(" {\"a\": [1, 2]}", text.substring(boundaries[0], boundaries[1])),
+        () -> assertEquals(" \"x,]\\\"\" ", text.substring(boundaries[2], boundaries[3])),
+        () -> assertEquals(" [] ", text.substring(boundaries[4], boundaries[5])),
+        () -> assertEquals(0, ToyJSONParser.arrayElements(" [ ] ").length)
+    );
+  }
+
+  @Test
+  public void arrayElementsInvalid() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.arrayElements("{}")),
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.arrayElements("[1,]")),
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.arrayElements("[,1]")),
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.arrayElements("[1}")),
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.arrayElements("[\"1]")),
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.arrayElements("[[1]")),
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.arrayElements("[1,2] garbage")),
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.arrayElements("[] []"))
+    );
+  }
+
+  @Test
+  public void arrayElementsTrailingBlanks() {
+    assertAll(
+        () -> assertEquals(4, ToyJSONParser.arrayElements("[1,2] \n\t").length),
+        () -> assertEquals(0, ToyJSONParser.arrayElements("[]\n").length)
+    );
+  }
+}
@@ -0,0 +1,148 @@
+package com.github.forax.framework.mapper.client;
+
+import com.github.forax.framework.mapper.JSONFeedParser;
+import com.github.forax.framework.mapper.JSONReader;
+import com.github.forax.framework.mapper.JSONTransform;
+import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Uses the push parsers from outside the package of the mapper, like a client would do.
+ */
+public class FeedParserClientTest {
+  public record Point(int x, int y) { }
+
+  private static JSONReader reader() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(type -> type instanceof Class<?> clazz && clazz.isRecord()
+        ? Optional.of(JSONReader.Collector.record(clazz))
+        : Optional.empty());
+    reader.addTypeMatcher(type -> type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() == List.class
+        ? Optional.of(JSONReader.Collector.list(parameterizedType.getActualTypeArguments()[0]))
+        : Optional.empty());
+    return reader;
+  }
+
+  private static void feed(JSONReader.FeedParser<?> parser, String text, int chunkSize) {
+    var bytes = text.getBytes(StandardCharsets.UTF_8);
+    for (var i = 0; i < bytes.length; i += chunkSize) {
+      parser.feed(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+    }
+  }
+
+  @Test
+  public void newFeedParserOfAClass() {
+    var parser = reader().newFeedParser(Point.class);
+    feed(parser, """
+        { "x": 1, "y": 12345 }
+        """, 3);
+    assertEquals(new Point(1, 12345), parser.endOfInput());
+  }
+
+  @Test
+  public void newFeedParserOfATypeReference() {
+    var parser = reader().newFeedParser(new JSONReader.TypeReference<List<Point>>() {});
+    feed(parser, """
+        [ { "x": 1, "y": 2 }, { "x": 3, "y": 4 } ]
+        """, 1);
+    List<Point> points = parser.endOfInput();
+    assertEquals(List.of(new Point(1, 2), new Point(3, 4)), points);
+  }
+
+  @Test
+  public void newFeedParserIncompleteText() {
+    var parser = reader().newFeedParser(Point.class);
+    feed(parser, "{ \"x\": 1", 4);
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, parser::endOfInput),
+        () -> assertThrows(IllegalStateException.class, () -> parser.feed(ByteBuffer.allocate(0)))
+    );
+  }
+
+  @Test
+  public void newFeedParserPreconditions() {
+    var reader = reader();
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> reader.newFeedParser((Class<?>) null)),
+        () -> assertThrows(NullPointerException.class, () -> reader.newFeedParser((JSONReader.TypeReference<?>) null)),
+        () -> assertThrows(NullPointerException.class, () -> reader.newFeedParser((Type) null))
+    );
+  }
+
+  @Test
+  public void feedParserWithAVisitor() {
+    var events = new ArrayList<String>();
+    var parser = new JSONFeedParser(new JSONVisitor() {
+      @Override
+      public void value(String key, Object value) {
+        events.add(key + "=" + value);
+      }
+
+      @Override
+      public void startObject(String key) {
+        events.add("{");
+      }
+
+      @Override
+      public void endObject(String key) {
+        events.add("}");
+      }
+
+      @Override
+      public void startArray(String key) {
+        events.add("[");
+      }
+
+      @Override
+      public void endArray(String key) {
+        events.add("]");
+      }
+    });
+    parser.feed(StandardCharsets.UTF_8.encode("{ \"a\": [ 1, \"b"));
+    parser.feed(StandardCharsets.UTF_8.encode("c\" ] }"));
+    parser.endOfInput();
+    assertEquals(List.of("{", "[", "null=1", "null=bc", "]", "}"), events);
+  }
+
+  @Test
+  public void feedParserWithATransform() {
+    var keys = new ArrayList<String>();
+    var transform = JSONTransform.identity()
+        .drop("password")
+        .rename("id", "userId");
+    var parser = new JSONFeedParser(transform.visitor(new JSONVisitor() {
+      @Override
+      public void value(String key, Object value) {
+        keys.add(key);
+      }
+
+      @Override
+      public void startObject(String key) {}
+
+      @Override
+      public void endObject(String key) {}
+
+      @Override
+      public void startArray(String key) {}
+
+      @Override
+      public void endArray(String key) {}
+    }));
+    parser.feed(StandardCharsets.UTF_8.encode("{ \"id\": 1, \"pass"));
+    parser.feed(StandardCharsets.UTF_8.encode("word\": \"secret\", \"name\": \"bob\" }"));
+    parser.endOfInput();
+    assertEquals(List.of("userId", "name"), keys);
+  }
+}